@@ -1,17 +1,65 @@
+// Immutable: the arrays are copied on the way in, so an appliance can be shared between threads and tables.
 class Appliance {
-    String name;
-    double wattage;
-    int quantity;
-    double hoursPerDay;
+    final String name;
+    final double wattage;
+    final int quantity;
+    final double hoursPerDay;
+    final double[] schedule;
+    // On/off pairs in hours of the day, [on0, off0, on1, off1, ...]; off < on wraps past midnight. Null means
+    // the timing is unknown and the load is treated as possibly on at any moment.
+    final double[] windows;
+    // Start-up draw as a multiple of wattage, e.g. 3 for a compressor motor.
+    final double surgeFactor;
 
     public Appliance(String name, double wattage, int quantity, double hoursPerDay) {
+        this(name, wattage, quantity, hoursPerDay, null);
+    }
+
+    // schedule[h] is the fraction of hour h (0-23) the appliance runs; it should add up to hoursPerDay.
+    public Appliance(String name, double wattage, int quantity, double hoursPerDay, double[] schedule) {
+        this(name, wattage, quantity, hoursPerDay, schedule, null, 1);
+    }
+
+    public Appliance(String name, double wattage, int quantity, double hoursPerDay, double[] schedule,
+                     double[] windows, double surgeFactor) {
+        if (schedule != null && schedule.length != 24) throw new IllegalArgumentException("Schedule needs 24 hourly values");
+        if (windows != null) {
+            if (windows.length == 0 || windows.length % 2 != 0) throw new IllegalArgumentException("Windows need on/off pairs");
+            for (int i = 0; i < windows.length; i += 2) {
+                if (windows[i] < 0 || windows[i] > 24 || windows[i + 1] < 0 || windows[i + 1] > 24)
+                    throw new IllegalArgumentException("Window times must be between 0 and 24");
+                if (windows[i] == windows[i + 1]) throw new IllegalArgumentException("Window starts and ends at the same time");
+            }
+        }
+        if (!(surgeFactor >= 1)) throw new IllegalArgumentException("Surge factor must be at least 1");
         this.name = name;
         this.wattage = wattage;
         this.quantity = quantity;
         this.hoursPerDay = hoursPerDay;
+        this.schedule = schedule != null ? schedule.clone() : null;
+        this.windows = windows != null ? windows.clone() : null;
+        this.surgeFactor = surgeFactor;
+    }
+
+    // "18-23,6-8.5" with the given separator between windows; blank text means unknown timing.
+    static double[] parseWindows(String text, String separator) {
+        if (text == null || text.isBlank()) return null;
+        String[] items = text.split(separator);
+        double[] windows = new double[items.length * 2];
+        for (int i = 0; i < items.length; i++) {
+            String[] onOff = items[i].split("-");
+            if (onOff.length != 2) throw new IllegalArgumentException("Bad window '" + items[i].trim() + "', expected on-off");
+            windows[i * 2] = Double.parseDouble(onOff[0].trim());
+            windows[i * 2 + 1] = Double.parseDouble(onOff[1].trim());
+        }
+        return windows;
     }
 
     public double getDailyConsumption() {
         return wattage * quantity * hoursPerDay;
     }
+
+    public double getHourlyFraction(int hour) {
+        return schedule != null ? schedule[hour] : hoursPerDay / 24;
+    }
 }
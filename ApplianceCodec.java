@@ -0,0 +1,138 @@
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.io.*;
+import com.google.gson.stream.*;
+
+class ApplianceCodec {
+    private ApplianceCodec() {}
+
+    public static int read(Reader in, Consumer<Appliance> sink) throws IOException {
+        return read(in, sink, () -> false);
+    }
+
+    // Stops between records once cancelled() turns true, leaving the rest of the input unread.
+    // A value of the wrong JSON type surfaces as an IOException naming where it was, like a syntax error does.
+    public static int read(Reader in, Consumer<Appliance> sink, BooleanSupplier cancelled) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) return 0;
+            int count = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (cancelled.getAsBoolean()) return count;
+                sink.accept(readAppliance(reader));
+                count++;
+            }
+            reader.endArray();
+            return count;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Unexpected value at " + reader.getPath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static Appliance readAppliance(JsonReader reader) throws IOException {
+        String name = "";
+        double wattage = 0, hoursPerDay = 0;
+        int quantity = 1;
+        double[] schedule = null, windows = null;
+        double surgeFactor = 1;
+        String where = reader.getPath();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            try {
+                switch (field) {
+                    case "name": name = reader.nextString(); break;
+                    case "wattage": wattage = reader.nextDouble(); break;
+                    case "quantity": quantity = reader.nextInt(); break;
+                    case "hoursPerDay": hoursPerDay = reader.nextDouble(); break;
+                    case "schedule": schedule = readSchedule(reader); break;
+                    case "windows": windows = readWindows(reader); break;
+                    case "surgeFactor": surgeFactor = reader.nextDouble(); break;
+                    default: reader.skipValue();
+                }
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new IOException("Appliance at " + where + ": bad " + field + ": " + e.getMessage(), e);
+            }
+        }
+        reader.endObject();
+        if (schedule != null && schedule.length != 24)
+            throw new IOException("Appliance '" + name + "' at " + where + ": schedule has " + schedule.length + " hourly values, not 24");
+        if (!(wattage > 0)) throw new IOException("Appliance '" + name + "' at " + where + ": wattage must be positive");
+        if (quantity <= 0) throw new IOException("Appliance '" + name + "' at " + where + ": quantity must be positive");
+        if (!(hoursPerDay >= 0 && hoursPerDay <= 24))
+            throw new IOException("Appliance '" + name + "' at " + where + ": hours per day must be between 0 and 24");
+        try {
+            return new Appliance(name, wattage, quantity, hoursPerDay, schedule, windows, surgeFactor);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Appliance '" + name + "' at " + where + ": " + e.getMessage(), e);
+        }
+    }
+
+    // [[on, off], ...] in hours of the day; an empty list means the timing is unknown, as a missing one does.
+    private static double[] readWindows(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        double[] windows = new double[8];
+        int n = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (n == windows.length) windows = Arrays.copyOf(windows, n * 2);
+            reader.beginArray();
+            windows[n++] = reader.nextDouble();
+            windows[n++] = reader.nextDouble();
+            reader.endArray();
+        }
+        reader.endArray();
+        return n == 0 ? null : Arrays.copyOf(windows, n);
+    }
+
+    private static double[] readSchedule(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        // Read whatever is there; readAppliance rejects anything but 24 values with the record named.
+        double[] schedule = new double[24];
+        int hour = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (hour == schedule.length) schedule = Arrays.copyOf(schedule, hour * 2);
+            schedule[hour++] = reader.nextDouble();
+        }
+        reader.endArray();
+        return hour == schedule.length ? schedule : Arrays.copyOf(schedule, hour);
+    }
+
+    public static void write(Writer out, Iterable<Appliance> appliances, boolean pretty) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        if (pretty) writer.setIndent("  ");
+        writer.beginArray();
+        for (Appliance a : appliances) writeAppliance(writer, a);
+        writer.endArray();
+        writer.flush();
+    }
+
+    public static void writeAppliance(JsonWriter writer, Appliance a) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(a.name);
+        writer.name("wattage").value(a.wattage);
+        writer.name("quantity").value(a.quantity);
+        writer.name("hoursPerDay").value(a.hoursPerDay);
+        if (a.schedule != null) {
+            writer.name("schedule").beginArray();
+            for (double fraction : a.schedule) writer.value(fraction);
+            writer.endArray();
+        }
+        if (a.windows != null) {
+            writer.name("windows").beginArray();
+            for (int i = 0; i < a.windows.length; i += 2) writer.beginArray().value(a.windows[i]).value(a.windows[i + 1]).endArray();
+            writer.endArray();
+        }
+        if (a.surgeFactor != 1) writer.name("surgeFactor").value(a.surgeFactor);
+        writer.endObject();
+    }
+}
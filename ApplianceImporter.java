@@ -0,0 +1,323 @@
+import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+// Bulk appliance import from spreadsheet exports (CSV, TSV or semicolon separated) straight into an ApplianceIndex.
+// The file is read through a FileChannel in large chunks and scanned byte by byte: only names are decoded to
+// strings and numbers go through IrradianceDataset.parseNumber. Rows are checked against the same ranges as the
+// console prompts; a bad row is recorded and skipped, and the rest still load.
+class ApplianceImporter {
+    static final int MAX_ERRORS = 1000;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_CACHED_NAMES = 1 << 16;
+    private static final int NAME = 0, WATTAGE = 1, QUANTITY = 2, HOURS = 3;
+    private static final String[] COLUMN_NAMES = {"name", "wattage", "quantity", "hours per day"};
+    // Header cells reduced to lower-case letters with any "(unit)" dropped, e.g. "Hours/Day (h)" -> "hoursday".
+    private static final Map<String, Integer> HEADER_ALIASES = new HashMap<>();
+    static {
+        for (String s : new String[]{"name", "appliance", "appliancename", "description", "item", "load"}) HEADER_ALIASES.put(s, NAME);
+        for (String s : new String[]{"wattage", "watts", "watt", "power", "rating", "ratedpower"}) HEADER_ALIASES.put(s, WATTAGE);
+        for (String s : new String[]{"quantity", "qty", "count", "units", "number"}) HEADER_ALIASES.put(s, QUANTITY);
+        for (String s : new String[]{"hours", "hoursperday", "hoursday", "hrs", "hrsday", "dailyhours", "hoursofuse"}) HEADER_ALIASES.put(s, HOURS);
+    }
+
+    record RowError(long line, String message) {
+        @Override
+        public String toString() { return "line " + line + ": " + message; }
+    }
+
+    // errors keeps the first MAX_ERRORS problems; failed counts all of them.
+    record Result(long rows, long imported, long failed, List<RowError> errors, long bytes, long nanos) {
+        double rowsPerSecond() { return rows / Math.max(nanos / 1e9, 1e-9); }
+    }
+
+    private final ApplianceIndex into;
+    private final byte delimiterHint;
+    private byte delimiter;
+    // column[field] is NAME..HOURS, or -1 for a column that is not imported; null until the first line is seen.
+    private int[] column;
+    private final int[] start = new int[4], end = new int[4];
+    private final boolean[] quoted = new boolean[4];
+    private long line, rows, imported, failed;
+    private final List<RowError> errors = new ArrayList<>();
+    // Open-addressed cache of names by their raw bytes: a repeated name is neither decoded nor allocated again,
+    // and the index sees the same String instance, whose hash is already computed.
+    private byte[][] cachedBytes = new byte[1024][];
+    private String[] cachedNames = new String[1024];
+    private int[] cachedHashes = new int[1024];
+    private int cached;
+
+    private ApplianceImporter(ApplianceIndex into, byte delimiterHint) {
+        this.into = into;
+        this.delimiterHint = delimiterHint;
+    }
+
+    // The first line is taken as a header when it names a wattage column; otherwise columns are
+    // name,wattage,quantity,hours (or name,wattage,hours when there are three).
+    public static Result importFile(Path file, ApplianceIndex into) throws IOException {
+        String lower = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        byte hint = lower.endsWith(".tsv") || lower.endsWith(".tab") ? (byte) '\t' : 0;
+        long started = System.nanoTime();
+        long metric = Metrics.start();
+        ApplianceImporter importer = new ApplianceImporter(into, hint);
+        long bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bytes = importer.read(channel);
+        } catch (IOException | RuntimeException e) {
+            Metrics.failed(Metrics.Op.IMPORT, metric);
+            throw e;
+        }
+        Metrics.record(Metrics.Op.IMPORT, metric, (int) Math.min(importer.imported, Integer.MAX_VALUE), bytes);
+        return new Result(importer.rows, importer.imported, importer.failed, Collections.unmodifiableList(importer.errors),
+                bytes, System.nanoTime() - started);
+    }
+
+    // Complete records are parsed in place; a partial record at the end of a chunk is moved to the front for the
+    // next read and scanned again from its start. A newline inside a quoted field (RFC 4180) does not end the
+    // record; quotes only open a field when they are its first character, as in split.
+    private long read(FileChannel channel) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        long total = 0;
+        boolean first = true;
+        while (true) {
+            int n = channel.read(buf);
+            if (n > 0) total += n;
+            buf.flip();
+            byte[] a = buf.array();
+            int from = buf.position(), limit = buf.limit();
+            if (first && limit - from >= 3 && a[from] == (byte) 0xEF && a[from + 1] == (byte) 0xBB && a[from + 2] == (byte) 0xBF) from += 3;
+            first = false;
+            int lineStart = from, breaks = 0, closed = -1;
+            boolean inQuotes = false;
+            for (int i = from; i < limit; i++) {
+                byte b = a[i];
+                if (inQuotes) {
+                    if (b == '"') {
+                        inQuotes = false;
+                        closed = i;
+                    } else if (b == '\n') {
+                        breaks++;
+                    }
+                } else if (b == '\n') {
+                    line(buf, lineStart, i, breaks);
+                    lineStart = i + 1;
+                    breaks = 0;
+                } else if (b == '"' && column != null && (closed == i - 1 || opensField(a, lineStart, i))) {
+                    // Opens a quoted field, or is the second quote of a "" pair inside one.
+                    inQuotes = true;
+                }
+            }
+            if (n < 0) {
+                if (lineStart < limit) line(buf, lineStart, limit, breaks);
+                return total;
+            }
+            buf.position(lineStart);
+            buf.compact();
+            if (!buf.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+                buf.flip();
+                bigger.put(buf);
+                buf = bigger;
+            }
+        }
+    }
+
+    // breaks counts the newlines inside quoted fields; errors name the line the record starts on.
+    // True when only blanks stand between the quote at i and the start of its field.
+    private boolean opensField(byte[] a, int lineStart, int i) {
+        int j = i - 1;
+        while (j >= lineStart && (a[j] == ' ' || (a[j] == '\t' && delimiter != '\t'))) j--;
+        return j < lineStart || a[j] == delimiter;
+    }
+
+    private void line(ByteBuffer buf, int from, int to, int breaks) throws IOException {
+        line++;
+        try {
+            byte[] a = buf.array();
+            if (to > from && a[to - 1] == '\r') to--;
+            if (isBlankLine(a, from, to)) return;
+            if (column == null && header(a, from, to)) return;
+            rows++;
+            String problem = split(a, from, to);
+            if (problem == null) problem = add(buf);
+            if (problem != null) {
+                failed++;
+                if (breaks > 0 && problem.equals("unterminated quote")) problem += " (runs to the end of the file)";
+                if (errors.size() < MAX_ERRORS) errors.add(new RowError(line, problem));
+            }
+        } finally {
+            line += breaks;
+        }
+    }
+
+    // Picks the delimiter and the column layout from the first line; true when that line was a header.
+    private boolean header(byte[] a, int from, int to) throws IOException {
+        delimiter = delimiterHint != 0 ? delimiterHint : sniffDelimiter(a, from, to);
+        List<String> cells = new ArrayList<>();
+        int cell = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && a[i] != delimiter) continue;
+            cells.add(new String(a, cell, i - cell, StandardCharsets.UTF_8));
+            cell = i + 1;
+        }
+        int[] mapped = new int[cells.size()];
+        boolean[] seen = new boolean[4];
+        for (int i = 0; i < mapped.length; i++) {
+            Integer c = HEADER_ALIASES.get(headerKey(cells.get(i)));
+            mapped[i] = c == null || seen[c] ? -1 : c;
+            if (c != null) seen[c] = true;
+        }
+        if (seen[WATTAGE]) {
+            for (int c : new int[]{NAME, HOURS}) {
+                if (!seen[c]) throw new IOException("header has no " + COLUMN_NAMES[c] + " column");
+            }
+            // Only scan as far as the last column that is imported.
+            int last = 0;
+            for (int i = 0; i < mapped.length; i++) if (mapped[i] >= 0) last = i;
+            column = Arrays.copyOf(mapped, last + 1);
+            return true;
+        }
+        column = cells.size() == 3 ? new int[]{NAME, WATTAGE, HOURS} : new int[]{NAME, WATTAGE, QUANTITY, HOURS};
+        return false;
+    }
+
+    private static String headerKey(String cell) {
+        StringBuilder key = new StringBuilder(cell.length());
+        for (int i = 0; i < cell.length(); i++) {
+            char c = Character.toLowerCase(cell.charAt(i));
+            if (c == '(' || c == '[') break;
+            if (c >= 'a' && c <= 'z') key.append(c);
+        }
+        return key.toString();
+    }
+
+    // Commas unless the line has tabs or semicolons and no commas.
+    private static byte sniffDelimiter(byte[] a, int from, int to) {
+        int commas = 0, tabs = 0, semicolons = 0;
+        for (int i = from; i < to; i++) {
+            if (a[i] == ',') commas++;
+            else if (a[i] == '\t') tabs++;
+            else if (a[i] == ';') semicolons++;
+        }
+        if (commas > 0) return ',';
+        return tabs > 0 ? (byte) '\t' : semicolons > 0 ? (byte) ';' : (byte) ',';
+    }
+
+    // Fills start/end/quoted for each imported column; a quoted field may hold the delimiter and "" for a quote.
+    private String split(byte[] a, int from, int to) {
+        Arrays.fill(start, -1);
+        int i = from;
+        for (int field = 0; field < column.length; field++) {
+            if (i > to) break;
+            int s = i;
+            while (s < to && (a[s] == ' ' || (a[s] == '\t' && delimiter != '\t'))) s++;
+            int e;
+            boolean q = s < to && a[s] == '"';
+            if (q) {
+                e = s + 1;
+                while (true) {
+                    if (e >= to) return "unterminated quote";
+                    if (a[e] == '"') {
+                        if (e + 1 < to && a[e + 1] == '"') e += 2;
+                        else break;
+                    } else {
+                        e++;
+                    }
+                }
+                i = e + 1;
+                while (i < to && a[i] != delimiter) i++;
+                s++;
+            } else {
+                e = s;
+                while (e < to && a[e] != delimiter) e++;
+                i = e;
+            }
+            i++;
+            int c = column[field];
+            if (c < 0) continue;
+            start[c] = s;
+            end[c] = e;
+            quoted[c] = q;
+        }
+        for (int c : new int[]{NAME, WATTAGE, HOURS}) {
+            if (start[c] < 0) return "missing " + COLUMN_NAMES[c];
+        }
+        return null;
+    }
+
+    private String add(ByteBuffer buf) {
+        byte[] a = buf.array();
+        int ns = start[NAME], ne = end[NAME];
+        if (!quoted[NAME]) {
+            while (ne > ns && (a[ne - 1] == ' ' || a[ne - 1] == '\t')) ne--;
+        }
+        if (ne == ns) return "missing name";
+        double wattage = IrradianceDataset.parseNumber(buf, start[WATTAGE], end[WATTAGE]);
+        if (Double.isNaN(wattage)) return "wattage '" + text(a, WATTAGE) + "' is not a number";
+        if (!(wattage > 0)) return "wattage must be positive";
+        int quantity = 1;
+        if (start[QUANTITY] >= 0) {
+            double q = IrradianceDataset.parseNumber(buf, start[QUANTITY], end[QUANTITY]);
+            if (Double.isNaN(q) || q != Math.rint(q) || q > Integer.MAX_VALUE) return "quantity '" + text(a, QUANTITY) + "' is not a whole number";
+            if (q <= 0) return "quantity must be positive";
+            quantity = (int) q;
+        }
+        double hours = IrradianceDataset.parseNumber(buf, start[HOURS], end[HOURS]);
+        if (Double.isNaN(hours)) return "hours per day '" + text(a, HOURS) + "' is not a number";
+        if (!(hours >= 0 && hours <= 24)) return "hours per day must be between 0 and 24";
+        into.add(name(a, ns, ne, quoted[NAME]), wattage, quantity, hours);
+        imported++;
+        return null;
+    }
+
+    private String name(byte[] a, int from, int to, boolean quoted) {
+        int hash = 1;
+        for (int i = from; i < to; i++) hash = 31 * hash + a[i];
+        int mask = cachedNames.length - 1;
+        int slot = hash & mask;
+        for (; cachedNames[slot] != null; slot = (slot + 1) & mask) {
+            if (cachedHashes[slot] == hash && Arrays.equals(cachedBytes[slot], 0, cachedBytes[slot].length, a, from, to))
+                return cachedNames[slot];
+        }
+        String name = new String(a, from, to - from, StandardCharsets.UTF_8);
+        if (quoted && name.indexOf('"') >= 0) name = name.replace("\"\"", "\"");
+        if (cached >= MAX_CACHED_NAMES) return name;
+        cachedBytes[slot] = Arrays.copyOfRange(a, from, to);
+        cachedNames[slot] = name;
+        cachedHashes[slot] = hash;
+        if (++cached * 2 > cachedNames.length) growNameCache();
+        return name;
+    }
+
+    private void growNameCache() {
+        byte[][] bytes = cachedBytes;
+        String[] names = cachedNames;
+        int[] hashes = cachedHashes;
+        cachedBytes = new byte[bytes.length * 2][];
+        cachedNames = new String[names.length * 2];
+        cachedHashes = new int[hashes.length * 2];
+        int mask = cachedNames.length - 1;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == null) continue;
+            int slot = hashes[i] & mask;
+            while (cachedNames[slot] != null) slot = (slot + 1) & mask;
+            cachedBytes[slot] = bytes[i];
+            cachedNames[slot] = names[i];
+            cachedHashes[slot] = hashes[i];
+        }
+    }
+
+    private String text(byte[] a, int c) {
+        return new String(a, start[c], end[c] - start[c], StandardCharsets.UTF_8).trim();
+    }
+
+    private static boolean isBlankLine(byte[] a, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (a[i] != ' ' && a[i] != '\t' && a[i] != ',' && a[i] != ';' && a[i] != '\r') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.*;
+
+// Rows are found by (name, wattage, hours) through an open-addressed int[] of row + 1 (0 is empty) with linear
+// probing, comparing against the table's own columns, so an add allocates no key or boxed row number.
+class ApplianceIndex implements Iterable<Appliance> {
+    private static final int INITIAL_SLOTS = 16;
+
+    private final ApplianceTable table = new ApplianceTable();
+    private int[] slots = new int[INITIAL_SLOTS];
+
+    public ApplianceIndex() {}
+
+    public ApplianceIndex(Iterable<Appliance> appliances) { addAll(appliances); }
+
+    public void add(Appliance a) { add(a.name, a.wattage, a.quantity, a.hoursPerDay, a.schedule, a.windows, a.surgeFactor); }
+
+    public void add(String name, double wattage, int quantity, double hoursPerDay) {
+        add(name, wattage, quantity, hoursPerDay, null);
+    }
+
+    public void add(String name, double wattage, int quantity, double hoursPerDay, double[] schedule) {
+        add(name, wattage, quantity, hoursPerDay, schedule, null, 1);
+    }
+
+    // Rows merge on (name, wattage, hours); the first schedule, windows and surge factor seen for a row are kept.
+    public void add(String name, double wattage, int quantity, double hoursPerDay, double[] schedule,
+                    double[] windows, double surgeFactor) {
+        int slot = find(name, wattage, hoursPerDay);
+        if (slot >= 0) {
+            int row = slots[slot] - 1;
+            table.setQuantity(row, table.quantity(row) + quantity);
+            return;
+        }
+        slots[-slot - 1] = table.add(name, wattage, quantity, hoursPerDay, schedule, windows, surgeFactor) + 1;
+        // At most half full keeps probe runs short.
+        if (table.size() * 2 > slots.length) rehash(slots.length * 2);
+    }
+
+    public void addAll(Iterable<Appliance> appliances) {
+        for (Appliance a : appliances) add(a);
+    }
+
+    // Returns how many units were actually removed.
+    public int remove(Appliance a) {
+        int slot = find(a.name, a.wattage, a.hoursPerDay);
+        if (slot < 0) return 0;
+        int row = slots[slot] - 1;
+        int removed = Math.min(a.quantity, table.quantity(row));
+        int remaining = table.quantity(row) - removed;
+        if (remaining > 0) {
+            table.setQuantity(row, remaining);
+            return removed;
+        }
+        deleteSlot(slot);
+        int moved = table.removeSwap(row);
+        if (moved >= 0) {
+            int mask = slots.length - 1, i = slotHash(row) & mask;
+            while (slots[i] != moved + 1) i = (i + 1) & mask;
+            slots[i] = row + 1;
+        }
+        return removed;
+    }
+
+    public void clear() {
+        table.clear();
+        slots = new int[INITIAL_SLOTS];
+    }
+
+    public int getQuantity(String name, double wattage, double hoursPerDay) {
+        int slot = find(name, wattage, hoursPerDay);
+        return slot >= 0 ? table.quantity(slots[slot] - 1) : 0;
+    }
+
+    public ApplianceTable table() { return table; }
+    public double getTotalDailyEnergy() { return table.totalDailyEnergy(); }
+    public int size() { return table.size(); }
+    public boolean isEmpty() { return table.size() == 0; }
+
+    public List<Appliance> toList() {
+        List<Appliance> list = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) list.add(table.get(i));
+        return list;
+    }
+
+    @Override
+    public Iterator<Appliance> iterator() {
+        return new Iterator<>() {
+            private int next;
+            public boolean hasNext() { return next < table.size(); }
+            public Appliance next() {
+                if (next >= table.size()) throw new NoSuchElementException();
+                return table.get(next++);
+            }
+        };
+    }
+
+    // The slot holding the row for this key, or -(empty slot) - 1 where it would go. Doubles compare by bits,
+    // as Double.equals does, so 0.0 and -0.0 stay apart and NaN matches itself.
+    private int find(String name, double wattage, double hoursPerDay) {
+        long w = Double.doubleToLongBits(wattage), h = Double.doubleToLongBits(hoursPerDay);
+        int mask = slots.length - 1;
+        for (int i = hash(name.hashCode(), w, h) & mask; ; i = (i + 1) & mask) {
+            int row = slots[i] - 1;
+            if (row < 0) return -i - 1;
+            if (Double.doubleToLongBits(table.wattage(row)) == w && Double.doubleToLongBits(table.hoursPerDay(row)) == h
+                    && table.name(row).equals(name)) return i;
+        }
+    }
+
+    private int slotHash(int row) {
+        return hash(table.name(row).hashCode(), Double.doubleToLongBits(table.wattage(row)),
+                Double.doubleToLongBits(table.hoursPerDay(row)));
+    }
+
+    private static int hash(int nameHash, long wattageBits, long hoursBits) {
+        long x = (nameHash * 31L + wattageBits) * 31L + hoursBits;
+        x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (x ^ (x >>> 33));
+    }
+
+    // Backward-shift deletion: later entries of the probe run move up, so lookups never need tombstones.
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int home = slotHash(slots[i] - 1) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, i].
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots[hole] = slots[i];
+                hole = i;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < table.size(); row++) {
+            int i = slotHash(row) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = row + 1;
+        }
+    }
+}
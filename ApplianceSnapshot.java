@@ -0,0 +1,341 @@
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+// Binary catalog: a header, fixed-width records, hourly schedules, on/off windows and a name dictionary, all
+// little-endian. Uncompressed files are memory mapped and read in place; a deflated body is inflated once into
+// the heap. Version 1 files, which predate surge factors and windows, are still read.
+class ApplianceSnapshot implements Iterable<Appliance> {
+    static final int MAGIC = 0x534F4C42; // "SOLB"
+    static final short VERSION = 2;
+    static final short FLAG_DEFLATE = 1;
+
+    // magic, version, flags, records, schedules, names, name bytes, body length
+    static final int V1_HEADER_BYTES = 4 + 2 + 2 + 4 + 4 + 4 + 4 + 8;
+    // version 2 adds: window lists, window values
+    static final int HEADER_BYTES = V1_HEADER_BYTES + 4 + 4;
+    // wattage, hours, quantity, name id, schedule id (-1 when none), reserved
+    static final int V1_RECORD_BYTES = 8 + 8 + 4 + 4 + 4 + 4;
+    // wattage, hours, quantity, name id, schedule id (-1 when none), windows id (-1 when none), surge factor
+    static final int RECORD_BYTES = 8 + 8 + 4 + 4 + 4 + 4 + 8;
+    static final int SCHEDULE_BYTES = 24 * 8;
+
+    private final ByteBuffer body;
+    private final int version, recordBytes;
+    private final int records, schedules, windows, windowValues, names;
+    private final int schedulesOffset, windowOffsetsOffset, windowValuesOffset, nameOffsetsOffset, nameBytesOffset;
+    private final String[] nameCache;
+    private final boolean compressed;
+
+    private ApplianceSnapshot(ByteBuffer body, int version, int records, int schedules, int windows, int windowValues,
+                              int names, boolean compressed) {
+        this.body = body.order(ByteOrder.LITTLE_ENDIAN);
+        this.version = version;
+        this.recordBytes = version == 1 ? V1_RECORD_BYTES : RECORD_BYTES;
+        this.records = records;
+        this.schedules = schedules;
+        this.windows = windows;
+        this.windowValues = windowValues;
+        this.names = names;
+        this.compressed = compressed;
+        this.schedulesOffset = records * recordBytes;
+        this.windowOffsetsOffset = schedulesOffset + schedules * SCHEDULE_BYTES;
+        this.windowValuesOffset = windowOffsetsOffset + (version == 1 ? 0 : (windows + 1) * 4);
+        this.nameOffsetsOffset = windowValuesOffset + windowValues * 8;
+        this.nameBytesOffset = nameOffsetsOffset + (names + 1) * 4;
+        this.nameCache = new String[names];
+    }
+
+    public static ApplianceSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.limit(V1_HEADER_BYTES);
+            readFully(channel, header);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not an appliance snapshot: " + path);
+            short version = header.getShort(4);
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+            int headerBytes = version == 1 ? V1_HEADER_BYTES : HEADER_BYTES;
+            header.limit(headerBytes);
+            readFully(channel, header);
+            header.position(6);
+            short flags = header.getShort();
+            int records = header.getInt(), schedules = header.getInt(), names = header.getInt(), nameBytes = header.getInt();
+            long bodyLength = header.getLong();
+            int windows = version == 1 ? 0 : header.getInt(), windowValues = version == 1 ? 0 : header.getInt();
+            long expected = (long) records * (version == 1 ? V1_RECORD_BYTES : RECORD_BYTES) + (long) schedules * SCHEDULE_BYTES
+                    + (version == 1 ? 0 : (windows + 1L) * 4 + windowValues * 8L) + (names + 1L) * 4 + nameBytes;
+            if (records < 0 || schedules < 0 || windows < 0 || windowValues < 0 || names < 0 || nameBytes < 0
+                    || expected > Integer.MAX_VALUE || bodyLength < 0 || bodyLength > channel.size() - headerBytes)
+                throw new IOException("Corrupt snapshot header");
+
+            boolean compressed = (flags & FLAG_DEFLATE) != 0;
+            ByteBuffer body;
+            if (!compressed) {
+                if (bodyLength != expected || channel.size() < headerBytes + expected)
+                    throw new IOException("Truncated snapshot body");
+                body = channel.map(FileChannel.MapMode.READ_ONLY, headerBytes, expected);
+            } else {
+                body = inflate(channel.map(FileChannel.MapMode.READ_ONLY, headerBytes, bodyLength), (int) expected);
+            }
+            return new ApplianceSnapshot(body, version, records, schedules, windows, windowValues, names, compressed);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("Truncated snapshot header");
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer deflated, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            ByteBuffer out = ByteBuffer.allocate(length);
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new IOException("Truncated snapshot body");
+            }
+            if (out.hasRemaining()) throw new IOException("Truncated snapshot body");
+            return out.flip();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed snapshot: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public int size() { return records; }
+    public boolean isCompressed() { return compressed; }
+
+    public double wattage(int row) { return body.getDouble(record(row)); }
+    public double hoursPerDay(int row) { return body.getDouble(record(row) + 8); }
+    public int quantity(int row) { return body.getInt(record(row) + 16); }
+    public int nameId(int row) { return body.getInt(record(row) + 20); }
+    public String name(int row) { return nameOf(nameId(row)); }
+    public double dailyConsumption(int row) { return wattage(row) * quantity(row) * hoursPerDay(row); }
+
+    public double[] schedule(int row) {
+        int id = body.getInt(record(row) + 24);
+        if (id < 0) return null;
+        double[] schedule = new double[24];
+        body.slice(schedulesOffset + id * SCHEDULE_BYTES, SCHEDULE_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+            .asDoubleBuffer().get(schedule);
+        return schedule;
+    }
+
+    public double[] windows(int row) {
+        if (version == 1) return null;
+        int id = body.getInt(record(row) + 28);
+        if (id < 0) return null;
+        int start = body.getInt(windowOffsetsOffset + id * 4), end = body.getInt(windowOffsetsOffset + id * 4 + 4);
+        double[] windows = new double[end - start];
+        for (int i = 0; i < windows.length; i++) windows[i] = body.getDouble(windowValuesOffset + (start + i) * 8);
+        return windows;
+    }
+
+    public double surgeFactor(int row) { return version == 1 ? 1 : body.getDouble(record(row) + 32); }
+
+    // Decoded on first use; racing threads at worst decode the same name twice.
+    public String nameOf(int id) {
+        String name = nameCache[id];
+        if (name == null) {
+            int start = body.getInt(nameOffsetsOffset + id * 4), end = body.getInt(nameOffsetsOffset + id * 4 + 4);
+            byte[] bytes = new byte[end - start];
+            body.get(nameBytesOffset + start, bytes);
+            nameCache[id] = name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return name;
+    }
+
+    public Appliance get(int row) {
+        return new Appliance(name(row), wattage(row), quantity(row), hoursPerDay(row), schedule(row), windows(row),
+                surgeFactor(row));
+    }
+
+    public double totalDailyEnergy() {
+        double total = 0;
+        for (int row = 0; row < records; row++) total += dailyConsumption(row);
+        return total;
+    }
+
+    public void forEach(Consumer<? super Appliance> sink) {
+        for (int row = 0; row < records; row++) sink.accept(get(row));
+    }
+
+    public ApplianceIndex toIndex() throws IOException {
+        ApplianceIndex index = new ApplianceIndex();
+        for (int row = 0; row < records; row++) {
+            checkRow(row);
+            index.add(name(row), wattage(row), quantity(row), hoursPerDay(row), schedule(row), windows(row), surgeFactor(row));
+        }
+        return index;
+    }
+
+    // Checks every row's ids and offsets; the accessors themselves trust them.
+    public void verify() throws IOException {
+        for (int row = 0; row < records; row++) checkRow(row);
+    }
+
+    // Ids and offsets come from the file, so a corrupt one must fail as IOException here rather than as an
+    // index error, or a silently wrong row, in the accessors.
+    private void checkRow(int row) throws IOException {
+        int at = record(row);
+        int nameId = body.getInt(at + 20);
+        if (nameId < 0 || nameId >= names) throw corrupt(row, "name id " + nameId);
+        int start = body.getInt(nameOffsetsOffset + nameId * 4), end = body.getInt(nameOffsetsOffset + nameId * 4 + 4);
+        if (start < 0 || start > end || end > body.limit() - nameBytesOffset) throw corrupt(row, "name offsets");
+        int scheduleId = body.getInt(at + 24);
+        if (scheduleId < -1 || scheduleId >= schedules) throw corrupt(row, "schedule id " + scheduleId);
+        if (version == 1) return;
+        int windowsId = body.getInt(at + 28);
+        if (windowsId < -1 || windowsId >= windows) throw corrupt(row, "windows id " + windowsId);
+        if (windowsId < 0) return;
+        start = body.getInt(windowOffsetsOffset + windowsId * 4);
+        end = body.getInt(windowOffsetsOffset + windowsId * 4 + 4);
+        if (start < 0 || start >= end || end > windowValues || (end - start) % 2 != 0) throw corrupt(row, "window offsets");
+    }
+
+    private static IOException corrupt(int row, String what) {
+        return new IOException("Corrupt snapshot: bad " + what + " in record " + row);
+    }
+
+    @Override
+    public Iterator<Appliance> iterator() {
+        return new Iterator<>() {
+            private int next;
+            public boolean hasNext() { return next < records; }
+            public Appliance next() {
+                if (next >= records) throw new NoSuchElementException();
+                return get(next++);
+            }
+        };
+    }
+
+    private int record(int row) {
+        Objects.checkIndex(row, records);
+        return row * recordBytes;
+    }
+
+    public static void write(Path path, Iterable<Appliance> appliances, boolean deflate) throws IOException {
+        long start = Metrics.start();
+        try {
+            int records = writeFile(path, appliances, deflate);
+            if (start != 0L) Metrics.record(Metrics.Op.EXPORT, start, records, Files.size(path));
+        } catch (IOException | RuntimeException e) {
+            Metrics.failed(Metrics.Op.EXPORT, start);
+            throw e;
+        }
+    }
+
+    // Sections are built in memory and written after the header, so the body costs O(n) heap on the way out.
+    private static int writeFile(Path path, Iterable<Appliance> appliances, boolean deflate) throws IOException {
+        Map<String, Integer> nameIds = new HashMap<>();
+        ByteArrayOutputStream nameBytes = new ByteArrayOutputStream();
+        List<Integer> nameOffsets = new ArrayList<>();
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(), scheduleBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream windowBytes = new ByteArrayOutputStream();
+        List<Integer> windowOffsets = new ArrayList<>();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer hours = ByteBuffer.allocate(SCHEDULE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int records = 0, schedules = 0, windowValues = 0;
+        for (Appliance a : appliances) {
+            Integer nameId = nameIds.get(a.name);
+            if (nameId == null) {
+                nameId = nameIds.size();
+                nameIds.put(a.name, nameId);
+                nameOffsets.add(nameBytes.size());
+                nameBytes.write(a.name.getBytes(StandardCharsets.UTF_8));
+            }
+            int scheduleId = -1;
+            if (a.schedule != null) {
+                scheduleId = schedules++;
+                hours.clear();
+                for (double f : a.schedule) hours.putDouble(f);
+                scheduleBytes.write(hours.array());
+            }
+            int windowsId = -1;
+            if (a.windows != null) {
+                windowsId = windowOffsets.size();
+                windowOffsets.add(windowValues);
+                ByteBuffer values = ByteBuffer.allocate(a.windows.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+                for (double h : a.windows) values.putDouble(h);
+                windowBytes.write(values.array());
+                windowValues += a.windows.length;
+            }
+            record.clear();
+            record.putDouble(a.wattage).putDouble(a.hoursPerDay).putInt(a.quantity).putInt(nameId).putInt(scheduleId)
+                  .putInt(windowsId).putDouble(a.surgeFactor);
+            recordBytes.write(record.array());
+            records++;
+        }
+        nameOffsets.add(nameBytes.size());
+        ByteBuffer offsets = ByteBuffer.allocate(nameOffsets.size() * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset : nameOffsets) offsets.putInt(offset);
+        int windows = windowOffsets.size();
+        windowOffsets.add(windowValues);
+        ByteBuffer windowIndex = ByteBuffer.allocate(windowOffsets.size() * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset : windowOffsets) windowIndex.putInt(offset);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(recordBytes.size() + scheduleBytes.size()
+                + windowIndex.capacity() + windowBytes.size() + offsets.capacity() + nameBytes.size());
+        recordBytes.writeTo(body);
+        scheduleBytes.writeTo(body);
+        body.write(windowIndex.array());
+        windowBytes.writeTo(body);
+        body.write(offsets.array());
+        nameBytes.writeTo(body);
+
+        byte[] payload = body.toByteArray();
+        if (deflate) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 4 + 64);
+            try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, new Deflater(Deflater.BEST_SPEED), 1 << 16)) {
+                out.write(payload);
+            }
+            payload = compressed.toByteArray();
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort(deflate ? FLAG_DEFLATE : 0)
+              .putInt(records).putInt(schedules).putInt(nameIds.size()).putInt(nameBytes.size()).putLong(payload.length)
+              .putInt(windows).putInt(windowValues);
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+            out.write(header.array());
+            out.write(payload);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records;
+    }
+
+    // Conversions between the JSON catalog and a snapshot. Importing holds every appliance, and then the whole
+    // encoded body, in memory (O(n)): the layout puts the schedules, windows and names after all the records.
+    public static int importJson(String jsonFile, Path snapshot, boolean deflate) throws IOException {
+        List<Appliance> appliances = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(Path.of(jsonFile), StandardCharsets.UTF_8)) {
+            ApplianceCodec.read(reader, appliances::add);
+        }
+        write(snapshot, appliances, deflate);
+        return appliances.size();
+    }
+
+    public static int exportJson(Path snapshot, String jsonFile, boolean pretty) throws IOException {
+        long start = Metrics.start();
+        ApplianceSnapshot s = open(snapshot);
+        s.verify();
+        try (Writer writer = Files.newBufferedWriter(Path.of(jsonFile), StandardCharsets.UTF_8)) {
+            ApplianceCodec.write(writer, s, pretty);
+        } catch (IOException | RuntimeException e) {
+            Metrics.failed(Metrics.Op.EXPORT, start);
+            throw e;
+        }
+        if (start != 0L) Metrics.record(Metrics.Op.EXPORT, start, s.size(), new File(jsonFile).length());
+        return s.size();
+    }
+}
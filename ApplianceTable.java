@@ -0,0 +1,163 @@
+import java.util.*;
+
+class ApplianceTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] wattage = new double[INITIAL_CAPACITY];
+    private int[] quantity = new int[INITIAL_CAPACITY];
+    private double[] hoursPerDay = new double[INITIAL_CAPACITY];
+    private int[] nameId = new int[INITIAL_CAPACITY];
+    private double[][] schedule = new double[INITIAL_CAPACITY][];
+    private double[][] windows = new double[INITIAL_CAPACITY][];
+    private double[] surgeFactor = new double[INITIAL_CAPACITY];
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private int size;
+
+    public int add(String name, double wattage, int quantity, double hoursPerDay) {
+        return add(name, wattage, quantity, hoursPerDay, null);
+    }
+
+    public int add(String name, double wattage, int quantity, double hoursPerDay, double[] schedule) {
+        return add(name, wattage, quantity, hoursPerDay, schedule, null, 1);
+    }
+
+    public int add(String name, double wattage, int quantity, double hoursPerDay, double[] schedule,
+                   double[] windows, double surgeFactor) {
+        if (size == this.wattage.length) grow();
+        int row = size++;
+        this.nameId[row] = internName(name);
+        this.wattage[row] = wattage;
+        this.quantity[row] = quantity;
+        this.hoursPerDay[row] = hoursPerDay;
+        this.schedule[row] = schedule;
+        this.windows[row] = windows;
+        this.surgeFactor[row] = surgeFactor;
+        return row;
+    }
+
+    public int add(Appliance a) {
+        return add(a.name, a.wattage, a.quantity, a.hoursPerDay, a.schedule, a.windows, a.surgeFactor);
+    }
+
+    // Moves the last row into the hole; returns the old index of the moved row, or -1 if none moved.
+    public int removeSwap(int row) {
+        int last = --size;
+        if (row == last) {
+            schedule[last] = null;
+            windows[last] = null;
+            return -1;
+        }
+        nameId[row] = nameId[last];
+        wattage[row] = wattage[last];
+        quantity[row] = quantity[last];
+        hoursPerDay[row] = hoursPerDay[last];
+        schedule[row] = schedule[last];
+        windows[row] = windows[last];
+        surgeFactor[row] = surgeFactor[last];
+        schedule[last] = null;
+        windows[last] = null;
+        return last;
+    }
+
+    public void clear() {
+        Arrays.fill(schedule, 0, size, null);
+        Arrays.fill(windows, 0, size, null);
+        size = 0;
+    }
+
+    public void setQuantity(int row, int quantity) { this.quantity[row] = quantity; }
+
+    // Detached copy for another thread to read while this table keeps changing; row arrays are shared, never written.
+    public ApplianceTable copy() {
+        ApplianceTable copy = new ApplianceTable();
+        int capacity = Math.max(size, 1);
+        copy.wattage = Arrays.copyOf(wattage, capacity);
+        copy.quantity = Arrays.copyOf(quantity, capacity);
+        copy.hoursPerDay = Arrays.copyOf(hoursPerDay, capacity);
+        copy.nameId = Arrays.copyOf(nameId, capacity);
+        copy.schedule = Arrays.copyOf(schedule, capacity);
+        copy.windows = Arrays.copyOf(windows, capacity);
+        copy.surgeFactor = Arrays.copyOf(surgeFactor, capacity);
+        copy.names.addAll(names);
+        copy.nameIds.putAll(nameIds);
+        copy.size = size;
+        return copy;
+    }
+
+    public int size() { return size; }
+    public String name(int row) { return names.get(nameId[row]); }
+    public int nameId(int row) { return nameId[row]; }
+    public double wattage(int row) { return wattage[row]; }
+    public int quantity(int row) { return quantity[row]; }
+    public double hoursPerDay(int row) { return hoursPerDay[row]; }
+    public double dailyConsumption(int row) { return wattage[row] * quantity[row] * hoursPerDay[row]; }
+    public double[] schedule(int row) { return schedule[row]; }
+    public double[] windows(int row) { return windows[row]; }
+    public double surgeFactor(int row) { return surgeFactor[row]; }
+
+    public Appliance get(int row) {
+        return new Appliance(name(row), wattage[row], quantity[row], hoursPerDay[row], schedule[row], windows[row], surgeFactor[row]);
+    }
+    public int distinctNames() { return names.size(); }
+
+    public double totalDailyEnergy() { return dailyTotal(wattage, quantity, hoursPerDay, size); }
+
+    public double[] dailyConsumptions() {
+        double[] daily = new double[size];
+        for (int i = 0; i < size; i++) daily[i] = wattage[i] * quantity[i] * hoursPerDay[i];
+        return daily;
+    }
+
+    // Watt-hours drawn in each hour of the day; rows without a schedule spread their hours evenly.
+    public double[] hourlyLoad() {
+        double[] load = new double[24];
+        for (int i = 0; i < size; i++) {
+            double power = wattage[i] * quantity[i];
+            double[] s = schedule[i];
+            if (s == null) {
+                double even = power * hoursPerDay[i] / 24;
+                for (int h = 0; h < 24; h++) load[h] += even;
+            } else {
+                for (int h = 0; h < 24; h++) load[h] += power * s[h];
+            }
+        }
+        return load;
+    }
+
+    // Four independent accumulators break the add dependency chain so the JIT can keep several
+    // multiplies in flight; the Vector API is still incubating on the JDK we ship against.
+    static double dailyTotal(double[] w, int[] q, double[] h, int n) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (int bound = n & ~3; i < bound; i += 4) {
+            s0 += w[i] * q[i] * h[i];
+            s1 += w[i + 1] * q[i + 1] * h[i + 1];
+            s2 += w[i + 2] * q[i + 2] * h[i + 2];
+            s3 += w[i + 3] * q[i + 3] * h[i + 3];
+        }
+        for (; i < n; i++) s0 += w[i] * q[i] * h[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private int internName(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = wattage.length * 2;
+        wattage = Arrays.copyOf(wattage, capacity);
+        quantity = Arrays.copyOf(quantity, capacity);
+        hoursPerDay = Arrays.copyOf(hoursPerDay, capacity);
+        nameId = Arrays.copyOf(nameId, capacity);
+        schedule = Arrays.copyOf(schedule, capacity);
+        windows = Arrays.copyOf(windows, capacity);
+        surgeFactor = Arrays.copyOf(surgeFactor, capacity);
+    }
+}
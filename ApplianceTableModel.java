@@ -0,0 +1,188 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import javax.swing.table.AbstractTableModel;
+
+// Reads cells straight from the store and formats them only when asked. Sorting and filtering
+// work on an int[] of store rows; the store itself is never copied or reordered. Adds, edits and
+// removes go through the calculator, so its running totals stay in step with the rows on screen.
+class ApplianceTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"Appliance Name", "Wattage (W)", "Qty", "Hours/Day", "Daily Energy (Wh)"};
+
+    private final SolarCalculator calc;
+    private final ApplianceTable store;
+    private int[] view;
+    private int viewSize;
+    private int sortColumn = -1;
+    private boolean ascending = true;
+    private String filter = "";
+    // Rows were added behind a sorted or filtered view that has not been rebuilt yet.
+    private boolean stale;
+
+    public ApplianceTableModel(SolarCalculator calc) {
+        this.calc = calc;
+        this.store = calc.appliances.table();
+    }
+
+    @Override public int getRowCount() { return view == null ? store.size() : viewSize; }
+    @Override public int getColumnCount() { return COLUMNS.length; }
+    @Override public String getColumnName(int column) { return COLUMNS[column]; }
+    @Override public boolean isCellEditable(int row, int column) { return column < 4; }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case 1: case 3: return Double.class;
+            case 2: return Integer.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int r = toStoreRow(row);
+        switch (column) {
+            case 0: return store.name(r);
+            case 1: return String.format("%.1f", store.wattage(r));
+            case 2: return store.quantity(r);
+            case 3: return String.format("%.1f", store.hoursPerDay(r));
+            default: return String.format("%.1f", store.dailyConsumption(r));
+        }
+    }
+
+    // Out-of-range values leave the row as it was.
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        Appliance before = store.get(toStoreRow(row));
+        String name = before.name;
+        double wattage = before.wattage, hoursPerDay = before.hoursPerDay;
+        int quantity = before.quantity;
+        switch (column) {
+            case 0: name = value.toString().trim(); break;
+            case 1: wattage = ((Number) value).doubleValue(); break;
+            case 2: quantity = ((Number) value).intValue(); break;
+            case 3: hoursPerDay = ((Number) value).doubleValue(); break;
+            default: return;
+        }
+        if (name.isEmpty() || !(wattage > 0) || quantity <= 0 || !(hoursPerDay > 0 && hoursPerDay <= 24)) return;
+        calc.editAppliance(before, new Appliance(name, wattage, quantity, hoursPerDay, before.schedule, before.windows, before.surgeFactor));
+        storeChanged();
+    }
+
+    // A row with the same name, wattage and hours takes the extra units instead of a new line.
+    public void add(Appliance a) {
+        int rows = store.size();
+        calc.addAppliance(a);
+        if (store.size() > rows) rowAppended();
+        else storeChanged();
+    }
+
+    public void addAll(List<Appliance> batch) {
+        addAll(batch, true);
+    }
+
+    // New rows at the end of an unsorted, unfiltered view cost one insert event, not a full refresh. A sorted or
+    // filtered view is rebuilt only when refresh is true; otherwise it keeps showing the rows it had until
+    // flush, so a large file streaming in does not re-sort the whole table per chunk.
+    public void addAll(List<Appliance> batch, boolean refresh) {
+        int rows = store.size();
+        calc.addAll(batch);
+        if (view != null) {
+            if (refresh) storeChanged();
+            else stale = true;
+            return;
+        }
+        int added = store.size() - rows;
+        if (added > 0) fireTableRowsInserted(rows, store.size() - 1);
+        // Some records only added units to rows already on screen.
+        if (added < batch.size() && rows > 0) fireTableRowsUpdated(0, rows - 1);
+    }
+
+    public void flush() {
+        if (stale) storeChanged();
+    }
+
+    public void remove(int viewRow) {
+        calc.removeAppliance(store.get(toStoreRow(viewRow)));
+        storeChanged();
+    }
+
+    public void clear() {
+        calc.clear();
+        storeChanged();
+    }
+
+    public int toStoreRow(int viewRow) {
+        return view == null ? viewRow : view[viewRow];
+    }
+
+    public void setFilter(String text) {
+        filter = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        storeChanged();
+    }
+
+    public void sortBy(int column) {
+        ascending = column != sortColumn || !ascending;
+        sortColumn = column;
+        storeChanged();
+    }
+
+    public void rowAppended() {
+        if (view == null) {
+            int row = store.size() - 1;
+            fireTableRowsInserted(row, row);
+        } else {
+            storeChanged();
+        }
+    }
+
+    public void storeChanged() {
+        stale = false;
+        rebuildView();
+        fireTableDataChanged();
+    }
+
+    private void rebuildView() {
+        if (filter.isEmpty() && sortColumn < 0) {
+            view = null;
+            return;
+        }
+        int n = store.size();
+        int[] rows = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.isEmpty() || store.name(i).toLowerCase(Locale.ROOT).contains(filter)) rows[count++] = i;
+        }
+        if (sortColumn >= 0) {
+            IntBinaryOperator cmp = comparator(sortColumn);
+            IntBinaryOperator order = ascending ? cmp : (a, b) -> cmp.applyAsInt(b, a);
+            mergeSort(rows, new int[count], 0, count, order);
+        }
+        view = rows;
+        viewSize = count;
+    }
+
+    private IntBinaryOperator comparator(int column) {
+        switch (column) {
+            case 0: return (a, b) -> store.name(a).compareToIgnoreCase(store.name(b));
+            case 1: return (a, b) -> Double.compare(store.wattage(a), store.wattage(b));
+            case 2: return (a, b) -> Integer.compare(store.quantity(a), store.quantity(b));
+            case 3: return (a, b) -> Double.compare(store.hoursPerDay(a), store.hoursPerDay(b));
+            default: return (a, b) -> Double.compare(store.dailyConsumption(a), store.dailyConsumption(b));
+        }
+    }
+
+    // Stable, so ties keep insertion order.
+    private static void mergeSort(int[] a, int[] tmp, int from, int to, IntBinaryOperator cmp) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, tmp, from, mid, cmp);
+        mergeSort(a, tmp, mid, to, cmp);
+        if (cmp.applyAsInt(a[mid - 1], a[mid]) <= 0) return;
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) a[k++] = cmp.applyAsInt(tmp[j], tmp[i]) < 0 ? tmp[j++] : tmp[i++];
+        while (i < mid) a[k++] = tmp[i++];
+        while (j < to) a[k++] = tmp[j++];
+    }
+}
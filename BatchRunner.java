@@ -0,0 +1,385 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.io.*;
+import com.google.gson.*;
+
+class BatchRunner {
+    private static final int QUEUE_PER_THREAD = 64;
+    private static final int SENSITIVITY_LIMIT = 10;
+
+    private final Writer out;
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Map<Double, double[]> clearSkyProfiles = new ConcurrentHashMap<>();
+    private final ResultCache cache;
+    private final ProfileStore profiles;
+    private final ComponentCatalog catalog;
+    private final IrradianceDataset irradiance;
+    // One accumulator per worker thread, merged once the pool has drained.
+    private final List<PortfolioSummary> summaries = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<PortfolioSummary> summary = ThreadLocal.withInitial(() -> {
+        PortfolioSummary s = new PortfolioSummary();
+        summaries.add(s);
+        return s;
+    });
+
+    // out may be null when only the portfolio summary is wanted.
+    BatchRunner(Writer out, ResultCache cache, ProfileStore profiles, ComponentCatalog catalog, IrradianceDataset irradiance) {
+        this.out = out;
+        this.cache = cache;
+        this.profiles = profiles;
+        this.catalog = catalog;
+        this.irradiance = irradiance;
+    }
+
+    public static void run(String inputFile, String outputFile, ResultCache cache, ProfileStore profiles,
+                           ComponentCatalog catalog, IrradianceDataset irradiance) {
+        boolean csv = inputFile.toLowerCase().endsWith(".csv");
+        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile), 1 << 16);
+             Writer writer = outputFile != null
+                     ? new BufferedWriter(new FileWriter(outputFile), 1 << 16)
+                     : new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16)) {
+            new BatchRunner(writer, cache, profiles, catalog, irradiance).process(reader, csv);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Batch failed: " + e.getMessage());
+        }
+    }
+
+    // Sizes every site but keeps only the fleet summary: JSON to outputFile, or a text table on stdout.
+    public static void runPortfolio(String inputFile, String outputFile, ResultCache cache, ProfileStore profiles,
+                                    IrradianceDataset irradiance) {
+        boolean csv = inputFile.toLowerCase().endsWith(".csv");
+        PortfolioSummary fleet;
+        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile), 1 << 16)) {
+            fleet = new BatchRunner(null, cache, profiles, null, irradiance).process(reader, csv);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Portfolio failed: " + e.getMessage());
+            return;
+        }
+        if (outputFile == null) {
+            System.out.print(fleet);
+            return;
+        }
+        try (Writer writer = new BufferedWriter(new FileWriter(outputFile))) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(fleet.toJson(), writer);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Could not write " + outputFile + ": " + e.getMessage());
+        }
+    }
+
+    public PortfolioSummary process(BufferedReader reader, boolean csv) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD), new ThreadPoolExecutor.CallerRunsPolicy());
+        long start = System.nanoTime();
+        try {
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                if (csv && lineNo == 1 && line.startsWith("id,")) continue;
+                final String raw = line;
+                final long number = lineNo;
+                pool.execute(() -> sizeSite(raw, number, csv));
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (out != null) synchronized (out) { out.flush(); }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = succeeded.get() + failed.get();
+        System.err.printf("Batch complete: %d sites (%d failed) in %.2f s, %.0f sites/s%n",
+                total, failed.get(), seconds, total / Math.max(seconds, 1e-9));
+        if (cache != null) System.err.println(cache.stats());
+        if (irradiance != null && !irradiance.isEmpty()) System.err.println(irradiance.stats());
+        if (Metrics.get().isEnabled()) System.err.print(Metrics.get().getSummary());
+        PortfolioSummary fleet = new PortfolioSummary();
+        for (PortfolioSummary s : summaries) fleet.merge(s);
+        return fleet;
+    }
+
+    // A line that fails is reported with its line number as well as its id, and is left out of the sizing.
+    private void sizeSite(String line, long lineNo, boolean csv) {
+        String fallbackId = "line-" + lineNo;
+        JsonObject result = new JsonObject();
+        try {
+            Site site = csv ? Site.fromCsv(line, fallbackId) : Site.fromJson(line, fallbackId, profiles);
+            result.addProperty("id", site.id);
+            sizeSite(site, result, clearSkyProfiles, cache, catalog, irradiance);
+            summary.get().add(site.panelWatt, result.get("numberOfPanels").getAsInt(),
+                    result.get("totalDailyEnergy").getAsDouble(), result.get("batteryCapacityWh").getAsDouble(),
+                    result.get("inverterSize").getAsDouble());
+            succeeded.incrementAndGet();
+        } catch (RuntimeException e) {
+            if (!result.has("id")) result.addProperty("id", fallbackId);
+            result.addProperty("line", lineNo);
+            result.addProperty("error", String.valueOf(e.getMessage()));
+            summary.get().addFailure();
+            failed.incrementAndGet();
+        }
+        if (out == null) return;
+        String json = result.toString();
+        try {
+            synchronized (out) {
+                out.write(json);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Parts are matched after the cache, so a cached result never carries parts from a different catalog.
+    static void sizeSite(Site site, JsonObject result, Map<Double, double[]> clearSkyProfiles, ResultCache cache,
+                         ComponentCatalog catalog, IrradianceDataset irradiance) {
+        long start = Metrics.start();
+        try {
+            if (site.resolveSunHours(irradiance)) {
+                result.addProperty("sunHours", site.sunHours);
+                result.addProperty("designMonth", IrradianceDataset.MONTHS[site.designMonth]);
+            }
+            sizeSiteCached(site, result, clearSkyProfiles, cache);
+            SolarDesign r = catalog != null || site.sensitivity > 0 ? design(site, result) : null;
+            if (catalog != null) {
+                List<ComponentCatalog.Line> lines = catalog.match(r);
+                double cost = 0;
+                for (ComponentCatalog.Line l : lines) cost += l.cost();
+                result.add("components", ComponentCatalog.toJson(lines));
+                result.addProperty("componentsCost", cost);
+            }
+            if (site.sensitivity > 0) {
+                Sensitivity.Result tornado = Sensitivity.analyze(new ApplianceIndex(site.appliances).table(), r, site.sensitivity);
+                result.add("sensitivity", tornado.toJson(SENSITIVITY_LIMIT));
+            }
+        } catch (RuntimeException e) {
+            Metrics.failed(Metrics.Op.SITE, start);
+            throw e;
+        }
+        Metrics.record(Metrics.Op.SITE, start, site.appliances.size(), 0);
+    }
+
+    // The design behind a sized result, rebuilt from its (possibly cached) outputs rather than sized again.
+    static SolarDesign design(Site site, JsonObject result) {
+        return SolarDesign.of(result.get("totalDailyEnergy").getAsDouble(), result.get("peakLoad").getAsDouble(),
+                result.get("surgeLoad").getAsDouble(), site.parameters());
+    }
+
+    private static void sizeSiteCached(Site site, JsonObject result, Map<Double, double[]> clearSkyProfiles, ResultCache cache) {
+        site.validate();
+        if (cache == null) {
+            computeSite(site, result, clearSkyProfiles);
+            return;
+        }
+        String key = ResultCache.key(site.appliances, site.sunHours, site.systemVoltage, site.panelWatt,
+                site.daysOfAutonomy, site.dod, site.inverterEfficiency, site.simulate);
+        JsonObject outputs = cache.get(key);
+        if (outputs == null) {
+            outputs = new JsonObject();
+            computeSite(site, outputs, clearSkyProfiles);
+            cache.put(key, outputs);
+        }
+        for (Map.Entry<String, JsonElement> e : outputs.entrySet()) result.add(e.getKey(), e.getValue());
+    }
+
+    private static void computeSite(Site site, JsonObject result, Map<Double, double[]> clearSkyProfiles) {
+        SolarDesign r;
+        HourlySimulation.Result sim = null;
+        if (site.simulate) {
+            SolarCalculator calc = new SolarCalculator(site.appliances);
+            r = calc.computeSystem(site.parameters());
+            sim = calc.simulateYear(clearSkyProfiles.computeIfAbsent(site.sunHours, HourlySimulation::clearSkyProfile));
+        } else {
+            r = SolarDesign.of(site.appliances, site.parameters());
+        }
+        result.addProperty("totalDailyEnergy", r.totalDailyEnergy());
+        result.addProperty("peakLoad", r.peakLoad());
+        result.addProperty("surgeLoad", r.surgeLoad());
+        result.addProperty("totalSolarPower", r.totalSolarPower());
+        result.addProperty("numberOfPanels", r.numberOfPanels());
+        result.addProperty("batteryCapacityAh", r.batteryCapacityAh());
+        result.addProperty("batteryCapacityWh", r.batteryCapacityWh());
+        result.addProperty("inverterSize", r.inverterSize());
+        result.addProperty("chargeControllerCurrent", r.chargeControllerCurrent());
+        if (sim != null) {
+            result.addProperty("unmetLoadHours", sim.unmetLoadHours);
+            result.addProperty("minStateOfCharge", sim.minStateOfCharge);
+            result.addProperty("curtailedEnergyWh", sim.curtailedEnergyWh);
+        }
+    }
+
+    static class Site {
+        String id;
+        // Irradiance location to take sun hours from when none are given; designMonth is set once resolved.
+        String location;
+        int designMonth = -1;
+        List<Appliance> appliances = new ArrayList<>();
+        double sunHours, systemVoltage, panelWatt, daysOfAutonomy, dod, inverterEfficiency;
+        boolean simulate;
+        // Fraction for a tornado of the top inputs in the result, 0 for none.
+        double sensitivity;
+
+        // {"id":"s1","sunHours":5,"systemVoltage":24,...,"appliances":[{"name":"tv","wattage":50,"quantity":1,"hoursPerDay":8}]}
+        // Appliances may add "windows":[[18,23],[6,8]] (on/off hours) and "surgeFactor":3. "location":"denver" in
+        // place of sunHours sizes for the worst month of that location's irradiance file, and "sensitivity":0.1 adds
+        // the ten inputs that move the sizing most under a +/-10% change.
+        // or {"id":"s1","profile":"coastal-24v","appliances":[...]} where any parameter given overrides the profile's.
+        static Site fromJson(String line, String fallbackId, ProfileStore profiles) {
+            JsonElement e = JsonParser.parseString(line);
+            if (!e.isJsonObject()) throw new IllegalArgumentException("site must be a JSON object");
+            return fromJson(e.getAsJsonObject(), fallbackId, profiles);
+        }
+
+        static Site fromJson(JsonObject o, String fallbackId, ProfileStore profiles) {
+            Site s = new Site();
+            s.id = o.has("id") ? text(o.get("id"), "id") : fallbackId;
+            SiteProfile p = null;
+            if (o.has("profile")) {
+                String name = text(o.get("profile"), "profile");
+                p = profiles != null ? profiles.get(name) : null;
+                if (p == null) throw new IllegalArgumentException("unknown profile '" + name + "'");
+            }
+            s.location = o.has("location") ? text(o.get("location"), "location") : null;
+            if (o.has("sunHours") || (p == null && s.location == null)) s.sunHours = number(o.get("sunHours"), "sunHours");
+            else s.sunHours = s.location != null ? Double.NaN : p.sunHours();
+            s.systemVoltage = p != null && !o.has("systemVoltage") ? p.systemVoltage() : number(o.get("systemVoltage"), "systemVoltage");
+            s.panelWatt = p != null && !o.has("panelWatt") ? p.panelWatt() : number(o.get("panelWatt"), "panelWatt");
+            s.daysOfAutonomy = p != null && !o.has("daysOfAutonomy") ? p.daysOfAutonomy() : number(o.get("daysOfAutonomy"), "daysOfAutonomy");
+            s.dod = p != null && !o.has("dod") ? p.dod() : number(o.get("dod"), "dod");
+            s.inverterEfficiency = p != null && !o.has("inverterEfficiency") ? p.inverterEfficiency()
+                    : number(o.get("inverterEfficiency"), "inverterEfficiency");
+            if (o.has("simulate")) {
+                JsonElement simulate = o.get("simulate");
+                if (!simulate.isJsonPrimitive() || !simulate.getAsJsonPrimitive().isBoolean())
+                    throw new IllegalArgumentException("field 'simulate' must be true or false");
+                s.simulate = simulate.getAsBoolean();
+            }
+            s.sensitivity = o.has("sensitivity") ? number(o.get("sensitivity"), "sensitivity") : 0;
+            for (JsonElement e : array(o.get("appliances"), "appliances")) {
+                if (!e.isJsonObject()) throw new IllegalArgumentException("each appliance must be a JSON object");
+                JsonObject a = e.getAsJsonObject();
+                double[] schedule = null;
+                if (a.has("schedule")) {
+                    JsonArray hours = array(a.get("schedule"), "schedule");
+                    schedule = new double[hours.size()];
+                    for (int h = 0; h < schedule.length; h++) schedule[h] = number(hours.get(h), "schedule");
+                }
+                double[] windows = null;
+                if (a.has("windows")) {
+                    JsonArray pairs = array(a.get("windows"), "windows");
+                    windows = pairs.size() == 0 ? null : new double[pairs.size() * 2];
+                    for (int w = 0; w < pairs.size(); w++) {
+                        JsonArray pair = array(pairs.get(w), "windows");
+                        if (pair.size() != 2) throw new IllegalArgumentException("window must be [on, off]");
+                        windows[w * 2] = number(pair.get(0), "windows");
+                        windows[w * 2 + 1] = number(pair.get(1), "windows");
+                    }
+                }
+                double quantity = a.has("quantity") ? number(a.get("quantity"), "quantity") : 1;
+                if (quantity != Math.rint(quantity) || Math.abs(quantity) > Integer.MAX_VALUE)
+                    throw new IllegalArgumentException("field 'quantity' must be a whole number");
+                s.appliances.add(appliance(text(a.get("name"), "name"), number(a.get("wattage"), "wattage"), (int) quantity,
+                        number(a.get("hoursPerDay"), "hoursPerDay"), schedule, windows,
+                        a.has("surgeFactor") ? number(a.get("surgeFactor"), "surgeFactor") : 1));
+            }
+            return s;
+        }
+
+        // Typed field access: a missing field or a value of the wrong JSON type is the caller's error, so it is
+        // reported as IllegalArgumentException naming the field rather than whatever Gson would throw.
+        private static double number(JsonElement e, String field) {
+            required(e, field);
+            if (e.isJsonPrimitive()) {
+                try {
+                    return e.getAsDouble();
+                } catch (NumberFormatException ex) {
+                    // falls through to the message below
+                }
+            }
+            throw new IllegalArgumentException("field '" + field + "' must be a number");
+        }
+
+        private static String text(JsonElement e, String field) {
+            required(e, field);
+            if (!e.isJsonPrimitive()) throw new IllegalArgumentException("field '" + field + "' must be a string");
+            return e.getAsString();
+        }
+
+        private static JsonArray array(JsonElement e, String field) {
+            required(e, field);
+            if (!e.isJsonArray()) throw new IllegalArgumentException("field '" + field + "' must be an array");
+            return e.getAsJsonArray();
+        }
+
+        private static void required(JsonElement e, String field) {
+            if (e == null || e.isJsonNull()) throw new IllegalArgumentException("missing field '" + field + "'");
+        }
+
+        // id,sunHours,systemVoltage,panelWatt,daysOfAutonomy,dod,inverterEfficiency,name:watt:qty:hours|name:watt:qty:hours
+        // Each appliance may add :surge and :on-off;on-off windows, e.g. pump:750:1:4:3:6-8;17-19.
+        static Site fromCsv(String line, String fallbackId) {
+            String[] f = line.split(",", 8);
+            if (f.length < 8) throw new IllegalArgumentException("expected 8 columns, got " + f.length);
+            Site s = new Site();
+            s.id = f[0].isBlank() ? fallbackId : f[0].trim();
+            s.sunHours = Double.parseDouble(f[1].trim());
+            s.systemVoltage = Double.parseDouble(f[2].trim());
+            s.panelWatt = Double.parseDouble(f[3].trim());
+            s.daysOfAutonomy = Double.parseDouble(f[4].trim());
+            s.dod = Double.parseDouble(f[5].trim());
+            s.inverterEfficiency = Double.parseDouble(f[6].trim());
+            for (String item : f[7].split("\\|")) {
+                if (item.isBlank()) continue;
+                String[] p = item.split(":");
+                if (p.length < 4 || p.length > 6) throw new IllegalArgumentException("bad appliance '" + item + "'");
+                double surge = p.length > 4 && !p[4].isBlank() ? Double.parseDouble(p[4].trim()) : 1;
+                double[] windows = p.length > 5 ? Appliance.parseWindows(p[5], ";") : null;
+                s.appliances.add(appliance(p[0].trim(), Double.parseDouble(p[1].trim()),
+                        Integer.parseInt(p[2].trim()), Double.parseDouble(p[3].trim()), null, windows, surge));
+            }
+            return s;
+        }
+
+        // The same ranges the console prompts enforce, so a bad load fails the site rather than skewing fleet totals.
+        private static Appliance appliance(String name, double wattage, int quantity, double hoursPerDay, double[] schedule,
+                                           double[] windows, double surgeFactor) {
+            if (name.isBlank()) throw new IllegalArgumentException("appliance name is empty");
+            if (!(wattage > 0)) throw new IllegalArgumentException("appliance '" + name + "': wattage must be positive");
+            if (quantity <= 0) throw new IllegalArgumentException("appliance '" + name + "': quantity must be positive");
+            if (!(hoursPerDay >= 0 && hoursPerDay <= 24))
+                throw new IllegalArgumentException("appliance '" + name + "': hours per day must be between 0 and 24");
+            return new Appliance(name, wattage, quantity, hoursPerDay, schedule, windows, surgeFactor);
+        }
+
+        // True when sun hours came from the irradiance dataset.
+        boolean resolveSunHours(IrradianceDataset irradiance) {
+            if (!Double.isNaN(sunHours) || location == null) return false;
+            if (irradiance == null) throw new IllegalArgumentException("no irradiance dataset for location '" + location + "'");
+            IrradianceDataset.Monthly monthly;
+            try {
+                monthly = irradiance.monthly(location);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+            designMonth = monthly.worstMonth();
+            sunHours = monthly.peakSunHours()[designMonth];
+            return true;
+        }
+
+        // Built on demand, since sun hours may only be known once the location is resolved.
+        SystemParameters parameters() {
+            return new SystemParameters(sunHours, systemVoltage, panelWatt, daysOfAutonomy, dod, inverterEfficiency);
+        }
+
+        void validate() {
+            parameters();
+            if (sensitivity < 0 || sensitivity >= 1) throw new IllegalArgumentException("sensitivity must be between 0 and 1");
+        }
+    }
+}
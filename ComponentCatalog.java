@@ -0,0 +1,188 @@
+import java.util.*;
+import java.io.*;
+import com.google.gson.*;
+
+// Real parts to turn a SolarDesign into a bill of materials. Each kind is indexed once as rating-sorted
+// primitive arrays with a suffix minimum of price, so nearest-fit and cheapest-fit are both binary searches.
+class ComponentCatalog {
+    enum Kind { PANEL, BATTERY, INVERTER, CONTROLLER }
+
+    record Part(Kind kind, String sku, double rating, double voltage, double price) {}
+
+    record Line(Part part, int quantity, String arrangement) {
+        double cost() { return part.price() * quantity; }
+    }
+
+    static final int DEFAULT_MAX_PARALLEL_STRINGS = 8;
+
+    private final Index[] indexes = new Index[Kind.values().length];
+    // Batteries are grouped by nominal voltage, since only voltages that divide the system voltage can form a string.
+    private final NavigableMap<Double, Index> batteriesByVoltage = new TreeMap<>();
+    private final int maxParallelStrings;
+
+    public ComponentCatalog(Collection<Part> parts) { this(parts, DEFAULT_MAX_PARALLEL_STRINGS); }
+
+    public ComponentCatalog(Collection<Part> parts, int maxParallelStrings) {
+        this.maxParallelStrings = maxParallelStrings;
+        Map<Kind, List<Part>> byKind = new EnumMap<>(Kind.class);
+        Map<Double, List<Part>> batteries = new HashMap<>();
+        for (Part p : parts) {
+            if (p.rating() <= 0 || p.price() < 0) throw new IllegalArgumentException("bad rating or price for " + p.sku());
+            byKind.computeIfAbsent(p.kind(), k -> new ArrayList<>()).add(p);
+            if (p.kind() == Kind.BATTERY) {
+                if (p.voltage() <= 0) throw new IllegalArgumentException("battery " + p.sku() + " needs a voltage");
+                batteries.computeIfAbsent(p.voltage(), v -> new ArrayList<>()).add(p);
+            }
+        }
+        for (Kind k : Kind.values()) indexes[k.ordinal()] = new Index(byKind.getOrDefault(k, Collections.emptyList()));
+        for (Map.Entry<Double, List<Part>> e : batteries.entrySet()) batteriesByVoltage.put(e.getKey(), new Index(e.getValue()));
+    }
+
+    // kind,sku,rating,voltage,price - rating is W for panels and inverters, A for controllers and Ah for batteries.
+    public static ComponentCatalog load(String fileName) throws IOException {
+        List<Part> parts = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName), 1 << 16)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || line.startsWith("#") || (lineNo == 1 && line.startsWith("kind,"))) continue;
+                String[] f = line.split(",");
+                if (f.length != 5) throw new IOException(fileName + ":" + lineNo + ": expected 5 columns");
+                try {
+                    parts.add(new Part(Kind.valueOf(f[0].trim().toUpperCase(Locale.ROOT)), f[1].trim(),
+                            Double.parseDouble(f[2].trim()), f[3].isBlank() ? 0 : Double.parseDouble(f[3].trim()),
+                            Double.parseDouble(f[4].trim())));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(fileName + ":" + lineNo + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return new ComponentCatalog(parts);
+    }
+
+    public int size(Kind kind) { return indexes[kind.ordinal()].size(); }
+
+    // Every part of one kind, by rating.
+    public List<Part> parts(Kind kind) { return List.of(indexes[kind.ordinal()].parts); }
+
+    // The smallest part rated at least minRating, or null.
+    public Part nearestFit(Kind kind, double minRating) { return indexes[kind.ordinal()].nearestFit(minRating); }
+
+    // The cheapest part rated at least minRating, or null.
+    public Part cheapestFit(Kind kind, double minRating) { return indexes[kind.ordinal()].cheapestFit(minRating); }
+
+    // The part whose rating is closest to target, above or below.
+    public Part closest(Kind kind, double target) { return indexes[kind.ordinal()].closest(target); }
+
+    // Cheapest battery bank of identical units: series count fixed by systemVoltage / unit voltage, parallel
+    // strings tried in increasing order. Each count is a suffix-min lookup, and the loop stops once even the
+    // cheapest unit in the group could not beat the best bank found so far.
+    public Line batteryBank(double systemVoltage, double requiredAh) {
+        Line best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (Map.Entry<Double, Index> group : batteriesByVoltage.headMap(systemVoltage, true).entrySet()) {
+            double ratio = systemVoltage / group.getKey();
+            int series = (int) Math.round(ratio);
+            if (series < 1 || Math.abs(ratio - series) > 1e-9) continue;
+            Index index = group.getValue();
+            double floorPrice = index.minPrice();
+            for (int parallel = 1; parallel <= maxParallelStrings; parallel++) {
+                int units = series * parallel;
+                if (units * floorPrice >= bestCost) break;
+                Part unit = index.cheapestFit(requiredAh / parallel);
+                if (unit == null) continue;
+                double cost = units * unit.price();
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = new Line(unit, units, series + "S" + parallel + "P");
+                }
+            }
+        }
+        return best;
+    }
+
+    // Panels: the model closest to the requested panel rating, with the count redone for its real rating.
+    // Batteries, inverter and controller: cheapest parts that cover the requirement. Missing kinds are skipped.
+    public List<Line> match(SolarDesign r) {
+        List<Line> lines = new ArrayList<>(4);
+        Part panel = closest(Kind.PANEL, r.panelWatt());
+        if (panel != null) lines.add(new Line(panel, Math.max(1, (int) Math.ceil(r.totalSolarPower() / panel.rating())), ""));
+        Line bank = batteryBank(r.systemVoltage(), r.batteryCapacityAh());
+        if (bank != null) lines.add(bank);
+        Part inverter = cheapestFit(Kind.INVERTER, r.inverterSize());
+        if (inverter != null) lines.add(new Line(inverter, 1, ""));
+        Part controller = cheapestFit(Kind.CONTROLLER, r.chargeControllerCurrent());
+        if (controller != null) lines.add(new Line(controller, 1, ""));
+        return lines;
+    }
+
+    static JsonArray toJson(List<Line> lines) {
+        JsonArray array = new JsonArray(lines.size());
+        for (Line l : lines) {
+            JsonObject o = new JsonObject();
+            o.addProperty("kind", l.part().kind().name().toLowerCase(Locale.ROOT));
+            o.addProperty("sku", l.part().sku());
+            o.addProperty("quantity", l.quantity());
+            if (!l.arrangement().isEmpty()) o.addProperty("arrangement", l.arrangement());
+            o.addProperty("unitPrice", l.part().price());
+            o.addProperty("cost", l.cost());
+            array.add(o);
+        }
+        return array;
+    }
+
+    private static final class Index {
+        final double[] rating, price;
+        final Part[] parts;
+        // cheapest[i] is the position of the lowest-priced part among positions i..n-1.
+        final int[] cheapest;
+
+        Index(List<Part> list) {
+            parts = list.toArray(new Part[0]);
+            Arrays.sort(parts, Comparator.comparingDouble(Part::rating).thenComparingDouble(Part::price));
+            int n = parts.length;
+            rating = new double[n];
+            price = new double[n];
+            cheapest = new int[n];
+            for (int i = 0; i < n; i++) {
+                rating[i] = parts[i].rating();
+                price[i] = parts[i].price();
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                cheapest[i] = i == n - 1 || price[i] <= price[cheapest[i + 1]] ? i : cheapest[i + 1];
+            }
+        }
+
+        int size() { return parts.length; }
+        double minPrice() { return parts.length == 0 ? Double.POSITIVE_INFINITY : price[cheapest[0]]; }
+
+        // First position whose rating is >= value.
+        int lowerBound(double value) {
+            int lo = 0, hi = rating.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (rating[mid] < value) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        Part nearestFit(double minRating) {
+            int i = lowerBound(minRating);
+            return i < parts.length ? parts[i] : null;
+        }
+
+        Part cheapestFit(double minRating) {
+            int i = lowerBound(minRating);
+            return i < parts.length ? parts[cheapest[i]] : null;
+        }
+
+        Part closest(double target) {
+            int i = lowerBound(target);
+            if (i == parts.length) return i == 0 ? null : parts[lowerBound(rating[i - 1])];
+            if (i == 0 || rating[i] - target <= target - rating[i - 1]) return parts[i];
+            return parts[lowerBound(rating[i - 1])];
+        }
+    }
+}
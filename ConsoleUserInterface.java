@@ -10,10 +10,14 @@ class UI {
     }
 
     public static void printHeader(String title) {
+        System.out.println(header(title));
+    }
+
+    public static String header(String title) {
         int totalWidth = 60;
         int padding = (totalWidth - title.length() - 2) / 2;
         String pad = "=".repeat(padding);
-        System.out.println("\n" + "+" + pad + " " + title + " " + pad + "+");
+        return "\n" + "+" + pad + " " + title + " " + pad + "+";
     }
 
     public static void printMenu(String title, String[] options) {
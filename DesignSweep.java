@@ -0,0 +1,150 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+class DesignSweep {
+    private static final int LEAF_SIZE = 1 << 14;
+
+    final double[] sunHours, systemVoltages, panelWatts, autonomyDays, dods, inverterEfficiencies;
+    private final double[] panelPrices;
+    private final PriceTable prices;
+
+    record DesignPoint(SolarDesign design, double cost) {}
+
+    public DesignSweep(double[] sunHours, double[] systemVoltages, double[] autonomyDays,
+                       double[] dods, double[] inverterEfficiencies, PriceTable prices) {
+        this.sunHours = sunHours.clone();
+        this.systemVoltages = systemVoltages.clone();
+        this.panelWatts = prices.panelWatts();
+        this.autonomyDays = autonomyDays.clone();
+        this.dods = dods.clone();
+        this.inverterEfficiencies = inverterEfficiencies.clone();
+        this.prices = prices;
+        this.panelPrices = new double[panelWatts.length];
+        for (int i = 0; i < panelWatts.length; i++) panelPrices[i] = prices.panelPrice(panelWatts[i]);
+        validate();
+    }
+
+    // Each value is checked alongside the first of every other list, so a bad input fails here and not after the sweep.
+    private void validate() {
+        double[][] lists = {sunHours, systemVoltages, panelWatts, autonomyDays, dods, inverterEfficiencies};
+        for (double[] list : lists) {
+            if (list.length == 0) throw new IllegalArgumentException("every sweep dimension needs at least one value");
+        }
+        double[] values = new double[lists.length];
+        for (int k = 0; k < lists.length; k++) {
+            for (int j = 0; j < lists.length; j++) values[j] = lists[j][0];
+            for (double v : lists[k]) {
+                values[k] = v;
+                new SystemParameters(values[0], values[1], values[2], values[3], values[4], values[5]);
+            }
+        }
+    }
+
+    public long combinations() {
+        return (long) sunHours.length * systemVoltages.length * panelWatts.length
+                * autonomyDays.length * dods.length * inverterEfficiencies.length;
+    }
+
+    // Cheapest design for each autonomy value, reduced to the cost/autonomy Pareto front, most autonomy first.
+    public List<DesignPoint> paretoFront(double totalDailyEnergy) {
+        Best best = ForkJoinPool.commonPool().invoke(new SweepTask(totalDailyEnergy, 0, combinations()));
+        List<DesignPoint> front = new ArrayList<>();
+        double cheapest = Double.POSITIVE_INFINITY;
+        Integer[] order = new Integer[autonomyDays.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(autonomyDays[b], autonomyDays[a]));
+        for (int d : order) {
+            if (best.index[d] < 0 || best.cost[d] >= cheapest) continue;
+            cheapest = best.cost[d];
+            front.add(decode(totalDailyEnergy, best.index[d], best.cost[d]));
+        }
+        return front;
+    }
+
+    private DesignPoint decode(double totalDailyEnergy, long index, double cost) {
+        int e = (int) (index % inverterEfficiencies.length); index /= inverterEfficiencies.length;
+        int o = (int) (index % dods.length); index /= dods.length;
+        int d = (int) (index % autonomyDays.length); index /= autonomyDays.length;
+        int p = (int) (index % panelWatts.length); index /= panelWatts.length;
+        int v = (int) (index % systemVoltages.length); index /= systemVoltages.length;
+        int s = (int) index;
+        return new DesignPoint(SolarDesign.of(totalDailyEnergy, new SystemParameters(sunHours[s], systemVoltages[v],
+                panelWatts[p], autonomyDays[d], dods[o], inverterEfficiencies[e])), cost);
+    }
+
+    private static class Best {
+        final double[] cost;
+        final long[] index;
+
+        Best(int size) {
+            cost = new double[size];
+            index = new long[size];
+            Arrays.fill(cost, Double.POSITIVE_INFINITY);
+            Arrays.fill(index, -1);
+        }
+
+        Best merge(Best other) {
+            for (int i = 0; i < cost.length; i++) {
+                if (other.cost[i] < cost[i] || (other.cost[i] == cost[i] && other.index[i] >= 0 && other.index[i] < index[i])) {
+                    cost[i] = other.cost[i];
+                    index[i] = other.index[i];
+                }
+            }
+            return this;
+        }
+    }
+
+    private class SweepTask extends RecursiveTask<Best> {
+        private static final long serialVersionUID = 1L;
+        private final double energy;
+        private final long from, to;
+
+        SweepTask(double energy, long from, long to) {
+            this.energy = energy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Best compute() {
+            if (to - from > LEAF_SIZE) {
+                long mid = (from + to) >>> 1;
+                SweepTask left = new SweepTask(energy, from, mid);
+                left.fork();
+                Best right = new SweepTask(energy, mid, to).compute();
+                return left.join().merge(right);
+            }
+            return evaluate();
+        }
+
+        // Index layout (outermost first): sunHours, voltage, panel, autonomy, dod, efficiency.
+        private Best evaluate() {
+            Best best = new Best(autonomyDays.length);
+            int ne = inverterEfficiencies.length, no = dods.length, nd = autonomyDays.length;
+            int np = panelWatts.length, nv = systemVoltages.length;
+            for (long i = from; i < to; i++) {
+                long rest = i;
+                int e = (int) (rest % ne); rest /= ne;
+                int o = (int) (rest % no); rest /= no;
+                int d = (int) (rest % nd); rest /= nd;
+                int p = (int) (rest % np); rest /= np;
+                int v = (int) (rest % nv); rest /= nv;
+                int s = (int) rest;
+
+                double eff = inverterEfficiencies[e];
+                double panels = Math.ceil(energy / sunHours[s] / panelWatts[p]);
+                double batteryWh = energy * autonomyDays[d] / (dods[o] * eff);
+                double controllerAmps = panelWatts[p] * panels / systemVoltages[v] * 1.25;
+                double cost = panels * panelPrices[p]
+                        + batteryWh / 1000 * prices.batteryPricePerKwh
+                        + energy / eff / 1000 * prices.inverterPricePerKw
+                        + controllerAmps * prices.controllerPricePerAmp;
+                if (cost < best.cost[d]) {
+                    best.cost[d] = cost;
+                    best.index[d] = i;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+class HourlySimulation {
+    static final int HOURS_PER_YEAR = 8760;
+
+    static class Result {
+        int unmetLoadHours;
+        double unmetEnergyWh;
+        double minStateOfCharge = 1.0;
+        double curtailedEnergyWh;
+        double servedEnergyWh;
+    }
+
+    private HourlySimulation() {}
+
+    /*
+     * loadProfile: 24 hourly AC loads in Wh. solarProfile: 8760 hourly array yields as a fraction of
+     * rated power (kWh per kWp). The bank starts full and may be drawn down to (1 - dod) of capacity.
+     */
+    public static Result run(double[] loadProfile, double[] solarProfile, double arrayWatts,
+                             double batteryWh, double dod, double inverterEfficiency) {
+        return run(loadProfile, solarProfile, arrayWatts, batteryWh, dod, inverterEfficiency, new Result());
+    }
+
+    public static Result run(double[] loadProfile, double[] solarProfile, double arrayWatts,
+                             double batteryWh, double dod, double inverterEfficiency, Result out) {
+        if (loadProfile.length != 24) throw new IllegalArgumentException("Load profile needs 24 hourly values");
+        if (solarProfile.length != HOURS_PER_YEAR) throw new IllegalArgumentException("Solar profile needs " + HOURS_PER_YEAR + " hourly values");
+
+        double floor = batteryWh * (1 - dod);
+        double stored = batteryWh;
+        double minStored = batteryWh;
+        int unmetHours = 0;
+        double unmet = 0, curtailed = 0, served = 0;
+
+        for (int h = 0; h < HOURS_PER_YEAR; h++) {
+            double demand = loadProfile[h % 24] / inverterEfficiency;
+            double net = arrayWatts * solarProfile[h] - demand;
+            if (net >= 0) {
+                stored += net;
+                if (stored > batteryWh) {
+                    curtailed += stored - batteryWh;
+                    stored = batteryWh;
+                }
+                served += loadProfile[h % 24];
+            } else {
+                double available = stored - floor;
+                if (available >= -net) {
+                    stored += net;
+                    served += loadProfile[h % 24];
+                } else {
+                    double shortfall = -net - Math.max(available, 0);
+                    stored = Math.min(stored, floor);
+                    unmetHours++;
+                    unmet += shortfall * inverterEfficiency;
+                    served += loadProfile[h % 24] - shortfall * inverterEfficiency;
+                }
+            }
+            if (stored < minStored) minStored = stored;
+        }
+
+        out.unmetLoadHours = unmetHours;
+        out.unmetEnergyWh = unmet;
+        out.curtailedEnergyWh = curtailed;
+        out.servedEnergyWh = served;
+        out.minStateOfCharge = batteryWh > 0 ? minStored / batteryWh : 0;
+        return out;
+    }
+
+    // Half-sine day from 06:00 to 18:00 scaled so every day yields sunHours kWh per kWp.
+    public static double[] clearSkyProfile(double sunHours) {
+        double[] day = new double[24];
+        double sum = 0;
+        for (int h = 6; h < 18; h++) {
+            day[h] = Math.sin(Math.PI * (h - 6 + 0.5) / 12);
+            sum += day[h];
+        }
+        double[] year = new double[HOURS_PER_YEAR];
+        for (int h = 0; h < HOURS_PER_YEAR; h++) year[h] = day[h % 24] * sunHours / sum;
+        return year;
+    }
+}
@@ -0,0 +1,248 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+// Hourly TMY-style irradiance files, one per location (<directory>/<location>.csv), reduced to monthly peak sun
+// hours. Files are memory mapped and scanned byte by byte; only the header line is decoded to text. Results are
+// kept in a bounded LRU keyed by location, and concurrent requests for the same file share a single parse.
+class IrradianceDataset {
+    static final int DEFAULT_MAX_LOCATIONS = 4096;
+    static final String[] MONTHS = {"January", "February", "March", "April", "May", "June", "July", "August",
+            "September", "October", "November", "December"};
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    // Average daily peak sun hours (kWh/m2/day of global horizontal irradiance) for each calendar month.
+    record Monthly(String location, double[] peakSunHours) {
+        int worstMonth() {
+            int worst = 0;
+            for (int m = 1; m < 12; m++) if (peakSunHours[m] < peakSunHours[worst]) worst = m;
+            return worst;
+        }
+
+        double worst() { return peakSunHours[worstMonth()]; }
+
+        double annualAverage() {
+            double total = 0;
+            for (int m = 0; m < 12; m++) total += peakSunHours[m] * DAYS_IN_MONTH[m];
+            return total / 365;
+        }
+    }
+
+    private record Entry(FutureTask<Monthly> task, FileTime modified, long size) {}
+
+    private final Path directory;
+    private final int maxLocations;
+    private final LinkedHashMap<String, Entry> cache;
+    private final LongAdder hits = new LongAdder(), parses = new LongAdder(), evictions = new LongAdder();
+
+    public IrradianceDataset(Path directory) { this(directory, DEFAULT_MAX_LOCATIONS); }
+
+    public IrradianceDataset(Path directory, int maxLocations) {
+        if (maxLocations < 1) throw new IllegalArgumentException("maxLocations must be positive");
+        this.directory = directory.toAbsolutePath().normalize();
+        this.maxLocations = maxLocations;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= IrradianceDataset.this.maxLocations) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public Path directory() { return directory; }
+
+    public boolean isEmpty() {
+        synchronized (cache) {
+            return cache.isEmpty();
+        }
+    }
+
+    // A file changed on disk since it was parsed is parsed again; anything else is served from the cache.
+    public Monthly monthly(String location) throws IOException {
+        Path file = resolve(location);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("no irradiance data for '" + location + "' in " + directory);
+        }
+        Entry entry;
+        boolean owner = false;
+        synchronized (cache) {
+            entry = cache.get(location);
+            if (entry == null || !entry.modified().equals(attrs.lastModifiedTime()) || entry.size() != attrs.size()) {
+                entry = new Entry(new FutureTask<>(() -> parse(location, file)), attrs.lastModifiedTime(), attrs.size());
+                cache.put(location, entry);
+                owner = true;
+            }
+        }
+        if (owner) {
+            parses.increment();
+            entry.task().run();
+        } else {
+            hits.increment();
+        }
+        try {
+            return entry.task().get();
+        } catch (ExecutionException e) {
+            synchronized (cache) {
+                cache.remove(location, entry);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for " + location);
+        }
+    }
+
+    // Location names map to files inside the dataset directory and nowhere else.
+    private Path resolve(String location) {
+        if (location.isBlank()) throw new IllegalArgumentException("empty irradiance location");
+        Path file = directory.resolve(location.endsWith(".csv") ? location : location + ".csv").normalize();
+        if (!file.startsWith(directory)) throw new IllegalArgumentException("bad irradiance location '" + location + "'");
+        return file;
+    }
+
+    public String stats() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return String.format("Irradiance: %d files parsed, %d cache hits, %d evictions, %d/%d locations",
+                parses.sum(), hits.sum(), evictions.sum(), size, maxLocations);
+    }
+
+    // Any metadata lines before the header are skipped. The header must name a GHI column (W/m2, hourly
+    // rows); a Month column is used when present, otherwise rows are taken as consecutive hours from 1 January.
+    static Monthly parse(String location, Path file) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException(file + " is too large");
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int limit = buf.limit(), pos = 0;
+        int ghiColumn = -1, monthColumn = -1;
+        while (pos < limit && ghiColumn < 0) {
+            int end = lineEnd(buf, pos, limit);
+            byte[] bytes = new byte[end - pos];
+            buf.get(pos, bytes);
+            String[] names = new String(bytes, StandardCharsets.UTF_8).split(",");
+            monthColumn = -1;
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i].trim().replace("\"", "").toLowerCase(Locale.ROOT);
+                // "GHI" or "GHI (W/m^2)", not the "GHI source" / "GHI uncert" flags that follow it in TMY3.
+                if (ghiColumn < 0 && (name.equals("ghi") || name.startsWith("ghi (") || name.startsWith("ghi("))) ghiColumn = i;
+                else if (name.equals("month")) monthColumn = i;
+            }
+            pos = end + 1;
+        }
+        if (ghiColumn < 0) throw new IOException(file + ": no GHI column");
+
+        double[] whPerM2 = new double[12];
+        int[] hours = new int[12];
+        int row = 0;
+        int wanted = Math.max(ghiColumn, monthColumn);
+        while (pos < limit) {
+            int end = lineEnd(buf, pos, limit);
+            if (end > pos && !(end == pos + 1 && buf.get(pos) == '\r')) {
+                double ghi = Double.NaN;
+                int month = -1;
+                int column = 0, start = pos;
+                for (int i = pos; i <= end && column <= wanted; i++) {
+                    if (i < end && buf.get(i) != ',') continue;
+                    if (column == ghiColumn) ghi = parseNumber(buf, start, i);
+                    else if (column == monthColumn) month = (int) parseNumber(buf, start, i) - 1;
+                    column++;
+                    start = i + 1;
+                }
+                if (monthColumn < 0) month = monthOfHour(row);
+                if (Double.isNaN(ghi) || month < 0 || month > 11)
+                    throw new IOException(file + ": bad data row " + (row + 1));
+                whPerM2[month] += Math.max(ghi, 0);
+                hours[month]++;
+                row++;
+            }
+            pos = end + 1;
+        }
+        double[] peakSunHours = new double[12];
+        for (int m = 0; m < 12; m++) {
+            if (hours[m] == 0) throw new IOException(file + ": no rows for " + MONTHS[m]);
+            peakSunHours[m] = whPerM2[m] / 1000 / (hours[m] / 24.0);
+        }
+        return new Monthly(location, peakSunHours);
+    }
+
+    private static int lineEnd(MappedByteBuffer buf, int pos, int limit) {
+        while (pos < limit && buf.get(pos) != '\n') pos++;
+        return pos;
+    }
+
+    private static int monthOfHour(int row) {
+        int day = row / 24;
+        for (int m = 0; m < 12; m++) {
+            if (day < DAYS_IN_MONTH[m]) return m;
+            day -= DAYS_IN_MONTH[m];
+        }
+        // A leap-year file's extra day lands in December.
+        return day < 1 ? 11 : -1;
+    }
+
+    // Decimal number in [start, end), with optional sign, fraction and exponent and surrounding blanks or
+    // quotes. NaN when the field is not a number. Also used by ApplianceImporter on its read buffers.
+    static double parseNumber(ByteBuffer buf, int start, int end) {
+        while (start < end && isBlank(buf.get(start))) start++;
+        while (end > start && isBlank(buf.get(end - 1))) end--;
+        if (start == end) return Double.NaN;
+        int i = start;
+        boolean negative = false;
+        byte b = buf.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int scale = 0, digits = 0;
+        for (; i < end && (b = buf.get(i)) >= '0' && b <= '9'; i++, digits++) {
+            if (mantissa < 100_000_000_000_000_000L) mantissa = mantissa * 10 + (b - '0');
+            else scale++;
+        }
+        if (i < end && buf.get(i) == '.') {
+            for (i++; i < end && (b = buf.get(i)) >= '0' && b <= '9'; i++, digits++) {
+                if (mantissa < 100_000_000_000_000_000L) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    scale--;
+                }
+            }
+        }
+        if (digits == 0) return Double.NaN;
+        if (i < end && (buf.get(i) == 'e' || buf.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) negativeExponent = buf.get(i++) == '-';
+            int exponent = 0, expDigits = 0;
+            for (; i < end && (b = buf.get(i)) >= '0' && b <= '9'; i++, expDigits++) exponent = Math.min(exponent * 10 + (b - '0'), 400);
+            if (expDigits == 0) return Double.NaN;
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != end) return Double.NaN;
+        double value = scale >= 0 ? mantissa * Math.pow(10, scale) : mantissa / Math.pow(10, -scale);
+        return negative ? -value : value;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '"';
+    }
+}
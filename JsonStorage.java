@@ -1,27 +1,151 @@
 import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
 
 class JsonStorage {
     private static final String FILE_NAME = "appliances.json";
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final String SNAPSHOT_NAME = "appliances.snap";
+    private static final String PROFILES_NAME = "profiles.json";
+    private static final String LEGACY_CONFIG_NAME = "calcConfig.json";
 
-    public static List<Appliance> loadAppliances() {
-        try (FileReader reader = new FileReader(FILE_NAME)) {
-            List<Appliance> loaded = gson.fromJson(reader, new TypeToken<List<Appliance>>() {}.getType());
-            return loaded != null ? loaded : new ArrayList<>();
+    // A missing file reads as empty; anything unreadable is thrown, so a caller never saves over data it failed to load.
+    public static List<Appliance> loadAppliances() throws IOException {
+        return loadIndex().toList();
+    }
+
+    // A snapshot at least as new as the JSON file is mapped instead of parsing the text.
+    public static ApplianceIndex loadIndex() throws IOException {
+        Path snapshot = Paths.get(SNAPSHOT_NAME);
+        if (isCurrent(snapshot)) {
+            long start = Metrics.start();
+            try {
+                ApplianceIndex index = ApplianceSnapshot.open(snapshot).toIndex();
+                if (start != 0L) Metrics.record(Metrics.Op.LOAD, start, index.size(), snapshot.toFile().length());
+                return index;
+            } catch (IOException | RuntimeException e) {
+                Metrics.failed(Metrics.Op.LOAD, start);
+                UI.printWarning("[WARNING] Ignoring unreadable " + SNAPSHOT_NAME + ": " + e.getMessage());
+            }
+        }
+        return loadIndex(FILE_NAME);
+    }
+
+    private static boolean isCurrent(Path snapshot) {
+        try {
+            Path json = Paths.get(FILE_NAME);
+            return Files.exists(snapshot) && (!Files.exists(json)
+                    || Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(json)) >= 0);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static ApplianceIndex loadIndex(String fileName) throws IOException {
+        ApplianceIndex index = new ApplianceIndex();
+        forEachAppliance(fileName, index::add);
+        return index;
+    }
+
+    public static int forEachAppliance(Consumer<Appliance> sink) throws IOException {
+        return forEachAppliance(FILE_NAME, sink);
+    }
+
+    public static int forEachAppliance(String fileName, Consumer<Appliance> sink) throws IOException {
+        File file = new File(fileName);
+        if (!file.exists()) return 0;
+        long start = Metrics.start();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            int count = ApplianceCodec.read(reader, sink);
+            if (start != 0L) Metrics.record(Metrics.Op.LOAD, start, count, file.length());
+            return count;
         } catch (IOException e) {
-            return new ArrayList<>();
+            Metrics.failed(Metrics.Op.LOAD, start);
+            throw new IOException("Could not read " + fileName + ": " + e.getMessage(), e);
         }
     }
 
     public static void saveAppliances(List<Appliance> appliances) {
-        try (FileWriter writer = new FileWriter(FILE_NAME)) {
-            gson.toJson(appliances, writer);
-            UI.printSuccess("Saved " + appliances.size() + " appliances to " + FILE_NAME);
+        saveAppliances(new ApplianceIndex(appliances), true);
+    }
+
+    // Keeps an existing snapshot in step with the JSON file; nothing is created unless one was exported before.
+    public static void saveAppliances(ApplianceIndex appliances, boolean pretty) {
+        saveAppliances(appliances, pretty, FILE_NAME);
+        refreshSnapshot(appliances);
+    }
+
+    public static void saveAppliances(ApplianceIndex appliances, boolean pretty, String fileName) {
+        try {
+            writeAppliances(appliances, pretty, fileName);
         } catch (IOException e) {
             UI.printError("Error saving appliances: " + e.getMessage());
+            return;
+        }
+        UI.printSuccess("Saved " + appliances.size() + " appliances to " + fileName);
+    }
+
+    // As saveAppliances, but failures are thrown to the caller instead of printed.
+    public static void writeAppliances(ApplianceIndex appliances, boolean pretty) throws IOException {
+        writeAppliances(appliances, pretty, FILE_NAME);
+        refreshSnapshot(appliances);
+    }
+
+    // Write-then-rename, so a failed or interrupted save leaves the previous file intact.
+    public static void writeAppliances(ApplianceIndex appliances, boolean pretty, String fileName) throws IOException {
+        long start = Metrics.start();
+        Path path = Paths.get(fileName).toAbsolutePath();
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                ApplianceCodec.write(writer, appliances, pretty);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Metrics.failed(Metrics.Op.SAVE, start);
+            if (tmp != null) Files.deleteIfExists(tmp);
+            throw e;
+        }
+        if (start != 0L) Metrics.record(Metrics.Op.SAVE, start, appliances.size(), Files.size(path));
+    }
+
+    private static void refreshSnapshot(ApplianceIndex appliances) {
+        Path snapshot = Paths.get(SNAPSHOT_NAME);
+        if (!Files.exists(snapshot)) return;
+        try {
+            ApplianceSnapshot.write(snapshot, appliances, ApplianceSnapshot.open(snapshot).isCompressed());
+        } catch (IOException e) {
+            UI.printWarning("[WARNING] Could not refresh " + SNAPSHOT_NAME + ": " + e.getMessage());
+        }
+    }
+
+    // Profiles live in profiles.json; a legacy single calcConfig.json is brought in once as "default".
+    public static ProfileStore openProfiles() throws IOException {
+        ProfileStore store = ProfileStore.open(Paths.get(PROFILES_NAME));
+        File legacy = new File(LEGACY_CONFIG_NAME);
+        if (store.size() == 0 && legacy.exists()) {
+            Map<String, Double> cfg;
+            try (Reader reader = Files.newBufferedReader(legacy.toPath(), StandardCharsets.UTF_8)) {
+                cfg = new Gson().fromJson(reader, new TypeToken<Map<String, Double>>() {}.getType());
+            } catch (JsonParseException e) {
+                throw new IOException("Malformed " + LEGACY_CONFIG_NAME + ": " + e.getMessage(), e);
+            }
+            if (cfg != null) {
+                store.put(new SiteProfile("default", new SystemParameters(cfg.getOrDefault("sunHours", 5.0),
+                        cfg.getOrDefault("voltage", 12.0), cfg.getOrDefault("panel", 100.0), cfg.getOrDefault("days", 2.0),
+                        cfg.getOrDefault("dod", 0.8), cfg.getOrDefault("invEff", 0.9))));
+            }
         }
+        return store;
+    }
+
+    // The shared loader for any front end: records reach the sink one at a time until cancelled() turns true.
+    public static int streamAppliances(Reader in, Consumer<Appliance> sink, BooleanSupplier cancelled) throws IOException {
+        return ApplianceCodec.read(in, sink, cancelled);
     }
 }
@@ -0,0 +1,192 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.lang.management.ManagementFactory;
+import javax.management.*;
+import jdk.jfr.*;
+
+// Counters and latency histograms per operation, plus a JFR event per call while a recording asks for it.
+// Call sites bracket work with start()/record(); when disabled, start() returns 0 and nothing else runs,
+// and the enabled path is allocation-free unless JFR is recording.
+class Metrics implements MetricsMBean {
+    enum Op { LOAD, SAVE, COMPUTE, RENDER, EXPORT, SITE, IMPORT }
+
+    // Log-linear buckets: 8 sub-buckets per power of two keeps percentiles within ~12%.
+    private static final int SUB_BITS = 3;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) << SUB_BITS;
+
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("solar.metrics"));
+    private static final Metrics INSTANCE = new Metrics();
+    private static final EventType EVENT_TYPE = EventType.getEventType(OperationEvent.class);
+    private static boolean registered;
+
+    private final LongAdder[] counts = adders(), errors = adders(), appliances = adders(), bytes = adders(), nanos = adders();
+    private final AtomicLongArray[] histograms = new AtomicLongArray[Op.values().length];
+    private final AtomicLongArray max = new AtomicLongArray(Op.values().length);
+
+    @Name("solar.Operation")
+    @Label("Solar Operation")
+    @Category("Solar Calculator")
+    @StackTrace(false)
+    static class OperationEvent extends Event {
+        @Label("Operation") String operation;
+        @Label("Appliances") int appliances;
+        @Label("Bytes") @DataAmount long bytes;
+        @Label("Latency") @Timespan long latency;
+        @Label("Failed") boolean failed;
+    }
+
+    private Metrics() {
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new AtomicLongArray(BUCKETS);
+    }
+
+    static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    static void record(Op op, long start, int applianceCount, long byteCount) {
+        if (start != 0L) INSTANCE.add(op, System.nanoTime() - start, applianceCount, byteCount, false);
+    }
+
+    static void failed(Op op, long start) {
+        if (start != 0L) INSTANCE.add(op, System.nanoTime() - start, 0, 0, true);
+    }
+
+    static Metrics get() { return INSTANCE; }
+
+    // Exposes the metrics as solar:type=Metrics; safe to call more than once.
+    static synchronized void registerMBean() {
+        if (registered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("solar:type=Metrics"));
+            registered = true;
+        } catch (JMException e) {
+            System.err.println("[WARNING] Metrics MBean not registered: " + e.getMessage());
+        }
+    }
+
+    private void add(Op op, long elapsed, int applianceCount, long byteCount, boolean failed) {
+        int i = op.ordinal();
+        if (failed) errors[i].increment();
+        else counts[i].increment();
+        appliances[i].add(applianceCount);
+        bytes[i].add(byteCount);
+        nanos[i].add(elapsed);
+        histograms[i].incrementAndGet(bucket(elapsed));
+        long m;
+        while (elapsed > (m = max.get(i)) && !max.compareAndSet(i, m, elapsed)) { }
+        if (EVENT_TYPE.isEnabled()) {
+            OperationEvent event = new OperationEvent();
+            event.operation = op.name();
+            event.appliances = applianceCount;
+            event.bytes = byteCount;
+            event.latency = elapsed;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    private static int bucket(long value) {
+        if (value < (1L << SUB_BITS)) return (int) Math.max(value, 0);
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    // Midpoint of the bucket's range.
+    private static double bucketValue(int bucket) {
+        if (bucket < (1 << SUB_BITS)) return bucket;
+        int exponent = (bucket >> SUB_BITS) + SUB_BITS - 1;
+        long sub = bucket & ((1 << SUB_BITS) - 1);
+        long low = (1L << exponent) + (sub << (exponent - SUB_BITS));
+        return low + (1L << (exponent - SUB_BITS)) / 2.0;
+    }
+
+    private double percentileMicros(int op, double p) {
+        AtomicLongArray h = histograms[op];
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) total += h.get(b);
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(p * total), seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += h.get(b);
+            if (seen >= rank) return Math.min(bucketValue(b), max.get(op)) / 1e3;
+        }
+        return max.get(op) / 1e3;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean on) { enabled = on; }
+
+    public void reset() {
+        for (int i = 0; i < histograms.length; i++) {
+            counts[i].reset();
+            errors[i].reset();
+            appliances[i].reset();
+            bytes[i].reset();
+            nanos[i].reset();
+            max.set(i, 0);
+            for (int b = 0; b < BUCKETS; b++) histograms[i].set(b, 0);
+        }
+    }
+
+    public String[] getOperations() {
+        Op[] ops = Op.values();
+        String[] names = new String[ops.length];
+        for (int i = 0; i < ops.length; i++) names[i] = ops[i].name();
+        return names;
+    }
+
+    public long[] getCounts() { return sums(counts); }
+    public long[] getErrors() { return sums(errors); }
+    public long[] getAppliances() { return sums(appliances); }
+    public long[] getBytes() { return sums(bytes); }
+
+    public double[] getMeanMicros() {
+        double[] mean = new double[counts.length];
+        for (int i = 0; i < mean.length; i++) {
+            long calls = counts[i].sum() + errors[i].sum();
+            mean[i] = calls == 0 ? 0 : nanos[i].sum() / 1e3 / calls;
+        }
+        return mean;
+    }
+
+    public double[] getP50Micros() { return percentiles(0.50); }
+    public double[] getP99Micros() { return percentiles(0.99); }
+
+    public double[] getMaxMicros() {
+        double[] m = new double[counts.length];
+        for (int i = 0; i < m.length; i++) m[i] = max.get(i) / 1e3;
+        return m;
+    }
+
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        String[] ops = getOperations();
+        long[] calls = getCounts(), failed = getErrors(), items = getAppliances(), io = getBytes();
+        double[] mean = getMeanMicros(), p50 = getP50Micros(), p99 = getP99Micros(), worst = getMaxMicros();
+        for (int i = 0; i < ops.length; i++) {
+            if (calls[i] + failed[i] == 0) continue;
+            sb.append(String.format("%-8s %,10d calls %,6d failed  mean %,10.1f us  p50 %,10.1f us  p99 %,10.1f us  max %,10.1f us  %,d appliances  %,d bytes%n",
+                    ops[i], calls[i], failed[i], mean[i], p50[i], p99[i], worst[i], items[i], io[i]));
+        }
+        return sb.toString();
+    }
+
+    private double[] percentiles(double p) {
+        double[] values = new double[counts.length];
+        for (int i = 0; i < values.length; i++) values[i] = percentileMicros(i, p);
+        return values;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] values = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) values[i] = adders[i].sum();
+        return values;
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[Op.values().length];
+        for (int i = 0; i < adders.length; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+}
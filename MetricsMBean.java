@@ -0,0 +1,17 @@
+// JMX view of Metrics. Array attributes line up index for index with getOperations().
+public interface MetricsMBean {
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    void reset();
+
+    String[] getOperations();
+    long[] getCounts();
+    long[] getErrors();
+    long[] getAppliances();
+    long[] getBytes();
+    double[] getMeanMicros();
+    double[] getP50Micros();
+    double[] getP99Micros();
+    double[] getMaxMicros();
+    String getSummary();
+}
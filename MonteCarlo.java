@@ -0,0 +1,80 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+class MonteCarlo {
+    private static final int TRIALS_PER_CHUNK = 1 << 14;
+
+    double cloudyDayProbability = 0.25;
+    double cloudyPersistence = 0.6;
+    double cloudyDayYield = 0.25;
+    double dutyCycleVariation = 0.3;
+    int daysPerTrial = 30;
+
+    static class Result {
+        final long trials;
+        final long depletions;
+
+        Result(long trials, long depletions) {
+            this.trials = trials;
+            this.depletions = depletions;
+        }
+
+        public double probability() { return trials > 0 ? (double) depletions / trials : 0; }
+
+        public double confidence95() {
+            double p = probability();
+            return trials > 0 ? 1.96 * Math.sqrt(p * (1 - p) / trials) : 0;
+        }
+    }
+
+    /*
+     * Each trial starts with a full bank and runs daysPerTrial days. Cloudy days follow a two-state
+     * Markov chain and yield cloudyDayYield of a clear day. Every appliance's daily energy varies
+     * uniformly by +/- dutyCycleVariation; the sum is drawn from its normal approximation so a day
+     * costs O(1) however many appliances there are. A trial fails if the bank drops below its DoD floor.
+     */
+    public Result estimate(double[] applianceDailyWh, double arrayWatts, double sunHours, double batteryWh,
+                           double dod, double inverterEfficiency, long trials, long seed) {
+        double meanLoad = 0, sumSquares = 0;
+        for (double wh : applianceDailyWh) {
+            meanLoad += wh;
+            sumSquares += wh * wh;
+        }
+        double loadSigma = dutyCycleVariation / Math.sqrt(3) * Math.sqrt(sumSquares);
+        double clearYield = arrayWatts * sunHours;
+        double floor = batteryWh * (1 - dod);
+        double mean = meanLoad;
+
+        int chunks = (int) ((trials + TRIALS_PER_CHUNK - 1) / TRIALS_PER_CHUNK);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) streams[c] = root.split();
+
+        long depletions = IntStream.range(0, chunks).parallel().mapToLong(c -> {
+            long from = (long) c * TRIALS_PER_CHUNK;
+            long count = Math.min(TRIALS_PER_CHUNK, trials - from);
+            return runChunk(streams[c], count, mean, loadSigma, clearYield, batteryWh, floor, inverterEfficiency);
+        }).sum();
+        return new Result(trials, depletions);
+    }
+
+    private long runChunk(SplittableRandom rng, long count, double meanLoad, double loadSigma, double clearYield,
+                          double batteryWh, double floor, double inverterEfficiency) {
+        long depletions = 0;
+        for (long t = 0; t < count; t++) {
+            double stored = batteryWh;
+            boolean cloudy = rng.nextDouble() < cloudyDayProbability;
+            for (int d = 0; d < daysPerTrial; d++) {
+                double load = Math.max(0, meanLoad + loadSigma * rng.nextGaussian());
+                stored += (cloudy ? clearYield * cloudyDayYield : clearYield) - load / inverterEfficiency;
+                if (stored < floor) {
+                    depletions++;
+                    break;
+                }
+                if (stored > batteryWh) stored = batteryWh;
+                cloudy = rng.nextDouble() < (cloudy ? cloudyPersistence : cloudyDayProbability);
+            }
+        }
+        return depletions;
+    }
+}
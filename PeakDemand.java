@@ -0,0 +1,223 @@
+import java.util.*;
+
+// Coincident peak load from appliance on/off windows, found with a sweep over sorted switch events in
+// O(n log n). Loads without windows are counted as on all day, the conservative reading of unknown timing.
+class PeakDemand {
+    private static final int SECONDS_PER_DAY = 24 * 3600;
+
+    static class Result {
+        // Highest simultaneous running load, in watts, and the hour of day it first occurs.
+        final double peakWatts;
+        final double peakHour;
+        // Highest running load plus the largest single start-up surge among loads on at that moment.
+        final double surgeWatts;
+
+        Result(double peakWatts, double peakHour, double surgeWatts) {
+            this.peakWatts = peakWatts;
+            this.peakHour = peakHour;
+            this.surgeWatts = surgeWatts;
+        }
+    }
+
+    private long[] keys = new long[64];
+    private double[] watts = new double[64];
+    private double[] surge = new double[64];
+    private int events;
+    private double alwaysOn, alwaysOnSurge;
+
+    public static Result compute(ApplianceTable table) {
+        PeakDemand sweep = new PeakDemand();
+        for (int row = 0; row < table.size(); row++) {
+            sweep.add(table.wattage(row), table.quantity(row), table.surgeFactor(row), table.windows(row));
+        }
+        return sweep.run();
+    }
+
+    public static Result compute(Iterable<Appliance> appliances) {
+        PeakDemand sweep = new PeakDemand();
+        for (Appliance a : appliances) sweep.add(a.wattage, a.quantity, a.surgeFactor, a.windows);
+        return sweep.run();
+    }
+
+    // Surge is counted for one unit starting while the rest of the row already runs.
+    private void add(double wattage, int quantity, double surgeFactor, double[] windows) {
+        double power = wattage * quantity;
+        double extra = wattage * (surgeFactor - 1);
+        if (power <= 0) return;
+        if (windows == null) {
+            alwaysOn += power;
+            alwaysOnSurge = Math.max(alwaysOnSurge, extra);
+            return;
+        }
+        int[] on = intervals(windows);
+        for (int i = 0; i < on.length; i += 2) interval(on[i], on[i + 1], power, extra);
+    }
+
+    // Windows as sorted, disjoint [on, off) pairs in seconds: wrapping windows are split at midnight and
+    // overlaps merged, so one appliance is never counted twice.
+    static int[] intervals(double[] windows) {
+        long[] segments = new long[windows.length];
+        int n = 0;
+        for (int i = 0; i < windows.length; i += 2) {
+            int on = seconds(windows[i]), off = seconds(windows[i + 1]);
+            if (off > on) {
+                segments[n++] = (long) on << 32 | off;
+            } else {
+                segments[n++] = (long) on << 32 | SECONDS_PER_DAY;
+                if (off > 0) segments[n++] = off;
+            }
+        }
+        Arrays.sort(segments, 0, n);
+        int[] merged = new int[n * 2];
+        int m = 0;
+        int start = (int) (segments[0] >>> 32), end = (int) segments[0];
+        for (int i = 1; i < n; i++) {
+            int on = (int) (segments[i] >>> 32), off = (int) segments[i];
+            if (on > end) {
+                merged[m++] = start;
+                merged[m++] = end;
+                start = on;
+            }
+            end = Math.max(end, off);
+        }
+        merged[m++] = start;
+        merged[m++] = end;
+        return m == merged.length ? merged : Arrays.copyOf(merged, m);
+    }
+
+    // Half-open [on, off): at a shared instant ends sort before starts, so back-to-back windows never overlap.
+    private void interval(int on, int off, double power, double extra) {
+        if (events + 2 > keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            watts = Arrays.copyOf(watts, capacity);
+            surge = Arrays.copyOf(surge, capacity);
+        }
+        event(((long) on << 1) | 1, power, extra);
+        event((long) off << 1, -power, extra);
+    }
+
+    private void event(long order, double power, double extra) {
+        int i = events++;
+        keys[i] = order << 32 | i;
+        watts[i] = power;
+        surge[i] = extra;
+    }
+
+    private Result run() { return run(null); }
+
+    private Result run(Timeline timeline) {
+        long[] sorted = Arrays.copyOf(keys, events);
+        Arrays.sort(sorted);
+        // Counts of the surge extras currently on, so the largest is always at hand.
+        TreeMap<Double, Integer> surges = new TreeMap<>();
+        double load = alwaysOn, peak = alwaysOn, peakSeconds = 0;
+        double bestSurge = alwaysOn + Math.max(alwaysOnSurge, 0);
+        int i = 0;
+        while (i < sorted.length) {
+            long time = sorted[i] >>> 33;
+            // Apply every switch at this instant before sampling, so simultaneous changes net out.
+            for (; i < sorted.length && (sorted[i] >>> 33) == time; i++) {
+                int e = (int) sorted[i];
+                load += watts[e];
+                // A timeline only needs the running load, so it skips the surge bookkeeping.
+                if (surge[e] > 0 && timeline == null) {
+                    if (watts[e] > 0) surges.merge(surge[e], 1, Integer::sum);
+                    else surges.computeIfPresent(surge[e], (k, n) -> n > 1 ? n - 1 : null);
+                }
+            }
+            if (timeline != null) timeline.append((int) time, load);
+            if (load > peak + 1e-9) {
+                peak = load;
+                peakSeconds = time;
+            }
+            double largest = Math.max(alwaysOnSurge, surges.isEmpty() ? 0 : surges.lastKey());
+            bestSurge = Math.max(bestSurge, load + largest);
+        }
+        return new Result(peak, peakSeconds / 3600.0, bestSurge);
+    }
+
+    // The base load over the day as constant steps, with max-load queries over any time range in O(log n).
+    public static Timeline timeline(ApplianceTable table) {
+        PeakDemand sweep = new PeakDemand();
+        for (int row = 0; row < table.size(); row++) {
+            sweep.add(table.wattage(row), table.quantity(row), table.surgeFactor(row), table.windows(row));
+        }
+        Timeline timeline = new Timeline(sweep.events + 1);
+        timeline.append(0, sweep.alwaysOn);
+        timeline.peak = sweep.run(timeline).peakWatts;
+        timeline.build();
+        return timeline;
+    }
+
+    static final class Timeline {
+        // Step k holds load[k] from start[k] (seconds) until start[k + 1], the last one until midnight.
+        private int[] start;
+        private double[] load;
+        private int steps;
+        // Iterative segment tree over load[0..steps): leaves at tree[size + k].
+        private double[] tree;
+        private int size;
+        private double peak;
+
+        private Timeline(int capacity) {
+            start = new int[capacity];
+            load = new double[capacity];
+        }
+
+        private void append(int time, double watts) {
+            if (steps > 0 && start[steps - 1] == time) {
+                load[steps - 1] = watts;
+                return;
+            }
+            start[steps] = time;
+            load[steps++] = watts;
+        }
+
+        private void build() {
+            size = 1;
+            while (size < steps) size <<= 1;
+            tree = new double[size * 2];
+            Arrays.fill(tree, Double.NEGATIVE_INFINITY);
+            System.arraycopy(load, 0, tree, size, steps);
+            for (int i = size - 1; i > 0; i--) tree[i] = Math.max(tree[i * 2], tree[i * 2 + 1]);
+        }
+
+        public double peak() { return peak; }
+
+        // Highest load anywhere in [from, to) seconds; -infinity for an empty range.
+        public double max(int from, int to) {
+            if (from >= to) return Double.NEGATIVE_INFINITY;
+            int lo = step(from), hi = step(to - 1) + 1;
+            double best = Double.NEGATIVE_INFINITY;
+            for (lo += size, hi += size; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1) best = Math.max(best, tree[lo++]);
+                if ((hi & 1) == 1) best = Math.max(best, tree[--hi]);
+            }
+            return best;
+        }
+
+        // Highest load inside and outside a set of intervals(...) pairs, as {inside, outside}.
+        public double[] maxInsideOutside(int[] intervals) {
+            double inside = Double.NEGATIVE_INFINITY, outside = Double.NEGATIVE_INFINITY;
+            int previous = 0;
+            for (int i = 0; i < intervals.length; i += 2) {
+                inside = Math.max(inside, max(intervals[i], intervals[i + 1]));
+                outside = Math.max(outside, max(previous, intervals[i]));
+                previous = intervals[i + 1];
+            }
+            outside = Math.max(outside, max(previous, SECONDS_PER_DAY));
+            return new double[]{inside, outside};
+        }
+
+        // Index of the step in force at time t.
+        private int step(int t) {
+            int i = Arrays.binarySearch(start, 0, steps, t);
+            return i >= 0 ? i : -i - 2;
+        }
+    }
+
+    private static int seconds(double hour) {
+        return (int) Math.round(hour * 3600);
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.*;
+import java.util.stream.Collector;
+import com.google.gson.*;
+
+// Mergeable fleet accumulator: totals, panel counts by rating and t-digest percentiles. Memory is fixed
+// however many sites are added. One instance per thread, combined with merge().
+class PortfolioSummary {
+    private static final double[] QUANTILES = {0.05, 0.25, 0.5, 0.75, 0.95, 0.99};
+
+    long sites, failed;
+    double dailyEnergyWh, arrayWatts, batteryWh, inverterWatts;
+    long panels;
+    final TreeMap<Double, Long> panelsByRating = new TreeMap<>();
+    final TDigest arrayKw = new TDigest(), batteryKwh = new TDigest(), inverterW = new TDigest(), dailyKwh = new TDigest();
+
+    public void add(SolarDesign r) {
+        add(r.panelWatt(), r.numberOfPanels(), r.totalDailyEnergy(), r.batteryCapacityWh(), r.inverterSize());
+    }
+
+    public void add(double panelWatt, int panelCount, double dailyWh, double batteryCapacityWh, double inverterSize) {
+        sites++;
+        double array = panelWatt * panelCount;
+        dailyEnergyWh += dailyWh;
+        arrayWatts += array;
+        batteryWh += batteryCapacityWh;
+        inverterWatts += inverterSize;
+        panels += panelCount;
+        panelsByRating.merge(panelWatt, (long) panelCount, Long::sum);
+        arrayKw.add(array / 1000);
+        batteryKwh.add(batteryCapacityWh / 1000);
+        inverterW.add(inverterSize);
+        dailyKwh.add(dailyWh / 1000);
+    }
+
+    public void addFailure() { failed++; }
+
+    public PortfolioSummary merge(PortfolioSummary other) {
+        sites += other.sites;
+        failed += other.failed;
+        dailyEnergyWh += other.dailyEnergyWh;
+        arrayWatts += other.arrayWatts;
+        batteryWh += other.batteryWh;
+        inverterWatts += other.inverterWatts;
+        panels += other.panels;
+        other.panelsByRating.forEach((rating, count) -> panelsByRating.merge(rating, count, Long::sum));
+        arrayKw.merge(other.arrayKw);
+        batteryKwh.merge(other.batteryKwh);
+        inverterW.merge(other.inverterW);
+        dailyKwh.merge(other.dailyKwh);
+        return this;
+    }
+
+    static Collector<SolarDesign, PortfolioSummary, PortfolioSummary> collector() {
+        return Collector.of(PortfolioSummary::new, PortfolioSummary::add, PortfolioSummary::merge,
+                Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    public JsonObject toJson() {
+        JsonObject o = new JsonObject();
+        o.addProperty("sites", sites);
+        o.addProperty("failed", failed);
+        JsonObject totals = new JsonObject();
+        totals.addProperty("dailyEnergyKwh", dailyEnergyWh / 1000);
+        totals.addProperty("arrayKw", arrayWatts / 1000);
+        totals.addProperty("batteryKwh", batteryWh / 1000);
+        totals.addProperty("inverterKw", inverterWatts / 1000);
+        totals.addProperty("panels", panels);
+        o.add("totals", totals);
+        JsonObject byRating = new JsonObject();
+        panelsByRating.forEach((rating, count) -> byRating.addProperty(formatRating(rating), count));
+        o.add("panelsByRating", byRating);
+        JsonObject percentiles = new JsonObject();
+        percentiles.add("arrayKw", percentiles(arrayKw));
+        percentiles.add("batteryKwh", percentiles(batteryKwh));
+        percentiles.add("inverterW", percentiles(inverterW));
+        percentiles.add("dailyEnergyKwh", percentiles(dailyKwh));
+        o.add("percentiles", percentiles);
+        return o;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Portfolio: %,d sites (%,d failed)%n", sites, failed));
+        sb.append(String.format("  Daily load %,.1f kWh, array %,.1f kW, storage %,.1f kWh, inverters %,.1f kW, %,d panels%n",
+                dailyEnergyWh / 1000, arrayWatts / 1000, batteryWh / 1000, inverterWatts / 1000, panels));
+        panelsByRating.forEach((rating, count) -> sb.append(String.format("  %6s W panels: %,d%n", formatRating(rating), count)));
+        sb.append(String.format("  %-16s %10s %10s %10s %10s %10s %10s%n", "percentile", "p5", "p25", "p50", "p75", "p95", "p99"));
+        row(sb, "array kW", arrayKw);
+        row(sb, "battery kWh", batteryKwh);
+        row(sb, "inverter W", inverterW);
+        row(sb, "daily kWh", dailyKwh);
+        return sb.toString();
+    }
+
+    private static void row(StringBuilder sb, String label, TDigest digest) {
+        sb.append(String.format("  %-16s", label));
+        for (double q : QUANTILES) sb.append(String.format(" %10.2f", digest.quantile(q)));
+        sb.append(System.lineSeparator());
+    }
+
+    private static JsonObject percentiles(TDigest digest) {
+        JsonObject o = new JsonObject();
+        if (digest.size() == 0) return o;
+        o.addProperty("min", digest.min());
+        for (double q : QUANTILES) o.addProperty("p" + Math.round(q * 100), digest.quantile(q));
+        o.addProperty("max", digest.max());
+        return o;
+    }
+
+    private static String formatRating(double rating) {
+        return rating == Math.rint(rating) ? String.valueOf((long) rating) : String.valueOf(rating);
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.*;
+
+// Read by every worker of a parallel sweep; DesignSweep copies the panel prices when it is built.
+class PriceTable {
+    private final Map<Double, Double> panelPrices = new HashMap<>();
+    final double batteryPricePerKwh;
+    final double inverterPricePerKw;
+    final double controllerPricePerAmp;
+
+    public PriceTable(double batteryPricePerKwh, double inverterPricePerKw, double controllerPricePerAmp) {
+        this.batteryPricePerKwh = batteryPricePerKwh;
+        this.inverterPricePerKw = inverterPricePerKw;
+        this.controllerPricePerAmp = controllerPricePerAmp;
+    }
+
+    // Each listed panel rating at its cheapest part, and the lowest rate per kWh of battery, per kW of inverter and
+    // per amp of controller among the listed parts.
+    public static PriceTable fromCatalog(ComponentCatalog catalog) {
+        PriceTable table = new PriceTable(lowestRate(catalog, ComponentCatalog.Kind.BATTERY),
+                lowestRate(catalog, ComponentCatalog.Kind.INVERTER), lowestRate(catalog, ComponentCatalog.Kind.CONTROLLER));
+        for (ComponentCatalog.Part p : catalog.parts(ComponentCatalog.Kind.PANEL)) {
+            table.panelPrices.merge(p.rating(), p.price(), Math::min);
+        }
+        if (table.panelPrices.isEmpty()) throw new IllegalArgumentException("catalog lists no panels");
+        return table;
+    }
+
+    private static double lowestRate(ComponentCatalog catalog, ComponentCatalog.Kind kind) {
+        double best = Double.POSITIVE_INFINITY;
+        for (ComponentCatalog.Part p : catalog.parts(kind)) {
+            double units = kind == ComponentCatalog.Kind.BATTERY ? p.rating() * p.voltage() / 1000
+                    : kind == ComponentCatalog.Kind.INVERTER ? p.rating() / 1000 : p.rating();
+            best = Math.min(best, p.price() / units);
+        }
+        if (best == Double.POSITIVE_INFINITY) throw new IllegalArgumentException("catalog lists no " + kind.name().toLowerCase() + "s");
+        return best;
+    }
+
+    public PriceTable panel(double panelWatt, double pricePerPanel) {
+        panelPrices.put(panelWatt, pricePerPanel);
+        return this;
+    }
+
+    public double panelPrice(double panelWatt) {
+        Double price = panelPrices.get(panelWatt);
+        if (price == null) throw new IllegalArgumentException("No price for " + panelWatt + " W panel");
+        return price;
+    }
+
+    public double[] panelWatts() {
+        double[] watts = panelPrices.keySet().stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(watts);
+        return watts;
+    }
+}
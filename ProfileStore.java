@@ -0,0 +1,143 @@
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import com.google.gson.*;
+
+// Named site profiles kept in one JSON object ({"name": {...}, ...}). Reads are served from an immutable
+// in-memory map, so any number of threads can resolve profiles without touching the disk.
+class ProfileStore {
+    interface Listener {
+        // oldProfile is null for an added profile, newProfile is null for a removed one.
+        void profileChanged(String name, SiteProfile oldProfile, SiteProfile newProfile);
+    }
+
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Path file;
+    private volatile Map<String, SiteProfile> profiles = Collections.emptyMap();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private WatchService watcher;
+
+    public ProfileStore(Path file) {
+        this.file = file.toAbsolutePath();
+    }
+
+    public static ProfileStore open(Path file) throws IOException {
+        ProfileStore store = new ProfileStore(file);
+        store.reload();
+        return store;
+    }
+
+    public SiteProfile get(String name) { return profiles.get(name); }
+    public Set<String> names() { return new TreeSet<>(profiles.keySet()); }
+    public int size() { return profiles.size(); }
+    public Path file() { return file; }
+
+    public void addListener(Listener listener) { listeners.add(listener); }
+    public void removeListener(Listener listener) { listeners.remove(listener); }
+
+    public synchronized void put(SiteProfile profile) throws IOException {
+        Map<String, SiteProfile> next = new LinkedHashMap<>(profiles);
+        next.put(profile.name(), profile);
+        save(next);
+        apply(next);
+    }
+
+    public synchronized void remove(String name) throws IOException {
+        if (!profiles.containsKey(name)) return;
+        Map<String, SiteProfile> next = new LinkedHashMap<>(profiles);
+        next.remove(name);
+        save(next);
+        apply(next);
+    }
+
+    // Re-reads the file; profiles that compare equal keep their existing instance and fire no event.
+    public synchronized void reload() throws IOException {
+        if (!Files.exists(file)) {
+            apply(Collections.emptyMap());
+            return;
+        }
+        JsonElement root;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            root = JsonParser.parseReader(reader);
+        } catch (JsonParseException e) {
+            throw new IOException("Malformed profile file " + file + ": " + e.getMessage(), e);
+        }
+        Map<String, SiteProfile> next = new LinkedHashMap<>();
+        if (root.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> e : root.getAsJsonObject().entrySet()) {
+                SiteProfile parsed = SiteProfile.fromJson(e.getKey(), e.getValue().getAsJsonObject());
+                SiteProfile current = profiles.get(e.getKey());
+                next.put(e.getKey(), parsed.equals(current) ? current : parsed);
+            }
+        }
+        apply(next);
+    }
+
+    private void apply(Map<String, SiteProfile> next) {
+        Map<String, SiteProfile> previous = profiles;
+        profiles = Collections.unmodifiableMap(next);
+        if (listeners.isEmpty()) return;
+        for (Map.Entry<String, SiteProfile> e : next.entrySet()) {
+            SiteProfile old = previous.get(e.getKey());
+            if (old != e.getValue() && !e.getValue().equals(old)) fire(e.getKey(), old, e.getValue());
+        }
+        for (Map.Entry<String, SiteProfile> e : previous.entrySet()) {
+            if (!next.containsKey(e.getKey())) fire(e.getKey(), e.getValue(), null);
+        }
+    }
+
+    private void fire(String name, SiteProfile oldProfile, SiteProfile newProfile) {
+        for (Listener l : listeners) l.profileChanged(name, oldProfile, newProfile);
+    }
+
+    private void save(Map<String, SiteProfile> next) throws IOException {
+        JsonObject root = new JsonObject();
+        for (SiteProfile p : next.values()) root.add(p.name(), p.toJson());
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, gson.toJson(root), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Watches the file's directory on a daemon thread and reloads on change. A half-written or invalid
+    // file is reported to onError and the last good profiles stay in place.
+    public synchronized void watch(Consumer<Exception> onError) throws IOException {
+        if (watcher != null) return;
+        watcher = file.getFileSystem().newWatchService();
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        WatchService service = watcher;
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = service.take();
+                    boolean touched = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context()))
+                            touched = true;
+                    }
+                    key.reset();
+                    if (!touched) continue;
+                    try {
+                        reload();
+                    } catch (IOException | RuntimeException e) {
+                        onError.accept(e);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // stopped
+            }
+        }, "profile-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void close() throws IOException {
+        if (watcher != null) watcher.close();
+        watcher = null;
+    }
+}
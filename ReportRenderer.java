@@ -0,0 +1,252 @@
+import java.util.*;
+import java.io.*;
+
+class ReportRenderer {
+    enum Format {
+        TEXT, CSV, JSON, MARKDOWN;
+
+        static Format of(String name) {
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "txt": case "text": return TEXT;
+                case "csv": return CSV;
+                case "json": return JSON;
+                case "md": case "markdown": return MARKDOWN;
+                default: throw new IllegalArgumentException("Unknown report format: " + name);
+            }
+        }
+    }
+
+    private static final String TITLE = "SOLAR SYSTEM CALCULATION RESULTS";
+    private static final String RULE = "+-------------------------------------+----------------------+";
+    private static final String WARNING = "WARNING: Add 10-20% safety margin to all values for real installations";
+    private static final String INFO = "INFO: Consult a certified solar installer for final system design";
+
+    private static class Row {
+        final String section, key, label, unit, display;
+        final double value;
+        final boolean integral;
+
+        Row(String section, String key, String label, double value, String unit, String display, boolean integral) {
+            this.section = section;
+            this.key = key;
+            this.label = label;
+            this.value = value;
+            this.unit = unit;
+            this.display = display;
+            this.integral = integral;
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private Sensitivity.Result tornado;
+    private int tornadoLimit;
+
+    public ReportRenderer(SolarDesign r) {
+        row("ENERGY REQUIREMENTS", "totalDailyEnergy", "Total Daily Load", r.totalDailyEnergy(), "Wh", "%.2f Wh");
+        row("ENERGY REQUIREMENTS", "totalSolarPower", "Required Solar Power", r.totalSolarPower(), "W", "%.2f W");
+        row("SOLAR PANELS", "numberOfPanels", "Number of Panels", r.numberOfPanels(), "panels", "%.0f panels");
+        row("SOLAR PANELS", "panelWatt", "Panel Rating", r.panelWatt(), "W", "%.0f W each");
+        row("SOLAR PANELS", "totalArrayPower", "Total Array Power", r.totalArrayPower(), "W", "%.0f W");
+        row("BATTERY SYSTEM", "batteryCapacityAh", "Battery Capacity", r.batteryCapacityAh(), "Ah", "%.2f Ah");
+        row("BATTERY SYSTEM", "systemVoltage", "System Voltage", r.systemVoltage(), "V", "%.0f V");
+        row("BATTERY SYSTEM", "batteryCapacityWh", "Total Energy Storage", r.batteryCapacityWh(), "Wh", "%.2f Wh");
+        row("BATTERY SYSTEM", "daysOfAutonomy", "Days of Autonomy", r.daysOfAutonomy(), "days", "%.1f days");
+        if (!Double.isNaN(r.peakLoad())) {
+            row("POWER ELECTRONICS", "peakLoad", "Peak Coincident Load", r.peakLoad(), "W", "%.2f W");
+            row("POWER ELECTRONICS", "surgeLoad", "Peak With Surge", r.surgeLoad(), "W", "%.2f W");
+        }
+        row("POWER ELECTRONICS", "inverterSize", "Inverter Size", r.inverterSize(), "W", "%.2f W");
+        row("POWER ELECTRONICS", "chargeControllerCurrent", "Charge Controller", r.chargeControllerCurrent(), "A", "%.2f A");
+    }
+
+    // Appends the top `limit` inputs of a sensitivity analysis to every format.
+    public ReportRenderer withSensitivity(Sensitivity.Result tornado, int limit) {
+        this.tornado = tornado;
+        this.tornadoLimit = Math.min(limit, tornado.size());
+        return this;
+    }
+
+    private void row(String section, String key, String label, double value, String unit, String pattern) {
+        boolean integral = key.equals("numberOfPanels");
+        rows.add(new Row(section, key, label, value, unit, String.format(pattern, value), integral));
+    }
+
+    public void render(Format format, Appendable out) throws IOException {
+        switch (format) {
+            case TEXT: renderText(out); break;
+            case CSV: renderCsv(out); break;
+            case JSON: renderJson(out); break;
+            default: renderMarkdown(out);
+        }
+    }
+
+    // The sensitivity section on its own, for showing after a report already on screen.
+    public void renderSensitivity(Format format, Appendable out) throws IOException {
+        if (tornado == null) return;
+        switch (format) {
+            case TEXT: tornadoText(out); break;
+            case CSV: tornadoCsv(out); break;
+            case JSON: tornadoJson(out); out.append('\n'); break;
+            default: tornadoMarkdown(out);
+        }
+    }
+
+    public String render(Format format) {
+        StringBuilder sb = new StringBuilder(1024);
+        try {
+            render(format, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private void renderText(Appendable out) throws IOException {
+        out.append(UI.header(TITLE)).append('\n').append('\n');
+        String section = null;
+        for (Row r : rows) {
+            if (!r.section.equals(section)) {
+                section = r.section;
+                out.append(RULE).append('\n');
+                out.append("| ").append(pad(section, 35)).append(" | ").append(pad("", 20)).append(" |\n");
+                out.append(RULE).append('\n');
+            }
+            out.append("| ").append(pad(r.label, 35)).append(" | ");
+            for (int i = r.display.length(); i < 20; i++) out.append(' ');
+            out.append(r.display).append(" |\n");
+        }
+        out.append(RULE).append('\n');
+        if (tornado != null) out.append('\n');
+        tornadoText(out);
+        out.append('\n').append(WARNING).append('\n').append(INFO).append('\n');
+    }
+
+    private static final String TORNADO_RULE =
+            "+------------------------------+-------------------+---------------------------+-----------------------+";
+
+    // Each cell is the output with the input lowered -> raised; rows run from the most influential input down.
+    private void tornadoText(Appendable out) throws IOException {
+        if (tornado == null) return;
+        out.append(TORNADO_RULE).append('\n');
+        out.append("| ").append(pad(tornadoTitle(), 28)).append(" | ").append(pad("Panels", 17)).append(" | ")
+           .append(pad("Battery (Ah)", 25)).append(" | ").append(pad("Controller (A)", 21)).append(" |\n");
+        out.append(TORNADO_RULE).append('\n');
+        out.append("| ").append(pad("Base design", 28)).append(" | ")
+           .append(pad(String.format("%.0f", tornado.base(0)), 17)).append(" | ")
+           .append(pad(String.format("%.1f", tornado.base(1)), 25)).append(" | ")
+           .append(pad(String.format("%.2f", tornado.base(2)), 21)).append(" |\n");
+        for (int k = 0; k < tornadoLimit; k++) {
+            int i = tornado.ranked[k];
+            String label = tornado.label(i);
+            out.append("| ").append(pad(label.length() > 28 ? label.substring(0, 25) + "..." : label, 28)).append(" | ")
+               .append(pad(String.format("%.0f -> %.0f", tornado.low[0][i], tornado.high[0][i]), 17)).append(" | ")
+               .append(pad(String.format("%.1f -> %.1f", tornado.low[1][i], tornado.high[1][i]), 25)).append(" | ")
+               .append(pad(String.format("%.2f -> %.2f", tornado.low[2][i], tornado.high[2][i]), 21)).append(" |\n");
+        }
+        out.append(TORNADO_RULE).append('\n');
+    }
+
+    private String tornadoTitle() {
+        return String.format("SENSITIVITY (+/-%.0f%%)", tornado.fraction * 100);
+    }
+
+    // RFC 4180: CRLF line breaks, fields quoted only when they need it.
+    private void renderCsv(Appendable out) throws IOException {
+        out.append("section,metric,value,unit\r\n");
+        for (Row r : rows) {
+            csvField(out, r.section).append(',');
+            csvField(out, r.label).append(',');
+            if (Double.isFinite(r.value)) out.append(number(r));
+            out.append(',');
+            csvField(out, r.unit).append("\r\n");
+        }
+        tornadoCsv(out);
+    }
+
+    // One row per input, output and direction, e.g. "Sun hours -10%: Number of Panels".
+    private void tornadoCsv(Appendable out) throws IOException {
+        if (tornado == null) return;
+        String[] units = {"panels", "Ah", "A"};
+        String minus = String.format("-%.0f%%: ", tornado.fraction * 100), plus = String.format("+%.0f%%: ", tornado.fraction * 100);
+        for (int k = 0; k < tornadoLimit; k++) {
+            int i = tornado.ranked[k];
+            for (int o = 0; o < Sensitivity.OUTPUTS.length; o++) {
+                for (int side = 0; side < 2; side++) {
+                    out.append("SENSITIVITY,");
+                    csvField(out, tornado.label(i) + " " + (side == 0 ? minus : plus) + OUTPUT_LABELS[o]).append(',');
+                    double v = side == 0 ? tornado.low[o][i] : tornado.high[o][i];
+                    out.append(o == 0 ? Long.toString((long) v) : Double.toString(v)).append(',');
+                    out.append(units[o]).append("\r\n");
+                }
+            }
+        }
+    }
+
+    private static final String[] OUTPUT_LABELS = {"Number of Panels", "Battery Capacity", "Charge Controller"};
+
+    private void renderJson(Appendable out) throws IOException {
+        out.append('{');
+        for (int i = 0; i < rows.size(); i++) {
+            Row r = rows.get(i);
+            if (i > 0) out.append(',');
+            out.append('"').append(r.key).append("\":").append(number(r));
+        }
+        if (tornado != null) {
+            out.append(",\"sensitivity\":");
+            tornadoJson(out);
+        }
+        out.append("}\n");
+    }
+
+    private void tornadoJson(Appendable out) throws IOException {
+        out.append(tornado.toJson(tornadoLimit).toString());
+    }
+
+    private void renderMarkdown(Appendable out) throws IOException {
+        out.append("## Solar System Calculation Results\n");
+        String section = null;
+        for (Row r : rows) {
+            if (!r.section.equals(section)) {
+                section = r.section;
+                out.append("\n### ").append(section).append("\n\n| Metric | Value |\n| --- | ---: |\n");
+            }
+            out.append("| ").append(r.label).append(" | ").append(r.display).append(" |\n");
+        }
+        tornadoMarkdown(out);
+        out.append("\n> ").append(WARNING).append("\n>\n> ").append(INFO).append('\n');
+    }
+
+    private void tornadoMarkdown(Appendable out) throws IOException {
+        if (tornado == null) return;
+        out.append("\n### ").append(tornadoTitle()).append("\n\n| Input | Panels | Battery (Ah) | Controller (A) |\n")
+           .append("| --- | ---: | ---: | ---: |\n");
+        for (int k = 0; k < tornadoLimit; k++) {
+            int i = tornado.ranked[k];
+            out.append("| ").append(tornado.label(i).replace("|", "\\|")).append(" | ")
+               .append(String.format("%.0f -> %.0f | %.1f -> %.1f | %.2f -> %.2f |\n", tornado.low[0][i], tornado.high[0][i],
+                       tornado.low[1][i], tornado.high[1][i], tornado.low[2][i], tornado.high[2][i]));
+        }
+    }
+
+    private static String number(Row r) {
+        if (r.integral) return Long.toString((long) r.value);
+        return Double.isFinite(r.value) ? Double.toString(r.value) : "null";
+    }
+
+    private static Appendable csvField(Appendable out, String field) throws IOException {
+        boolean quote = field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0;
+        if (!quote) return out.append(field);
+        out.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private static String pad(String s, int width) {
+        return s.length() >= width ? s : s + " ".repeat(width - s.length());
+    }
+}
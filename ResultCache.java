@@ -0,0 +1,234 @@
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import com.google.gson.*;
+
+class ResultCache {
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final int maxEntries;
+    private final Path directory;
+    private final LinkedHashMap<String, JsonObject> memory;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder diskWrites = new LongAdder();
+    private final LongAdder diskErrors = new LongAdder();
+
+    // directory may be null for a memory-only cache.
+    public ResultCache(int maxEntries, Path directory) throws IOException {
+        if (maxEntries <= 0) throw new IllegalArgumentException("cache size must be positive");
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+        if (directory != null) Files.createDirectories(directory);
+        this.memory = new LinkedHashMap<>(Math.min(maxEntries, 1 << 16) * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonObject> eldest) {
+                if (size() <= ResultCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public static ResultCache memoryOnly(int maxEntries) {
+        try {
+            return new ResultCache(maxEntries, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Order-independent: identical appliances are merged and the set is sorted before hashing. Names are left
+    // out because no output depends on them; schedules only matter to the hourly simulation. Windows and surge
+    // factors feed the peak-demand sweep, so they always count.
+    public static String key(Collection<Appliance> appliances, double sunHours, double systemVoltage, double panelWatt,
+                             double daysOfAutonomy, double dod, double inverterEfficiency, boolean simulate) {
+        List<Appliance> sorted = new ArrayList<>(appliances);
+        sorted.sort((a, b) -> {
+            int c = Double.compare(a.wattage, b.wattage);
+            if (c == 0) c = Double.compare(a.hoursPerDay, b.hoursPerDay);
+            if (c == 0) c = Double.compare(a.surgeFactor, b.surgeFactor);
+            if (c == 0) c = Arrays.compare(a.windows, b.windows);
+            if (c == 0 && simulate) c = Arrays.compare(a.schedule, b.schedule);
+            return c;
+        });
+        int windowValues = 0;
+        for (Appliance a : sorted) if (a.windows != null) windowValues += a.windows.length;
+        ByteBuffer buf = ByteBuffer.allocate(64 + sorted.size() * (simulate ? 233 : 33) + windowValues * 8);
+        buf.putLong(bits(sunHours)).putLong(bits(systemVoltage)).putLong(bits(panelWatt))
+           .putLong(bits(daysOfAutonomy)).putLong(bits(dod)).putLong(bits(inverterEfficiency))
+           .put((byte) (simulate ? 1 : 0));
+        for (int i = 0; i < sorted.size(); ) {
+            Appliance a = sorted.get(i);
+            long quantity = 0;
+            int j = i;
+            for (; j < sorted.size() && same(a, sorted.get(j), simulate); j++) quantity += sorted.get(j).quantity;
+            i = j;
+            if (quantity == 0) continue;
+            buf.putLong(bits(a.wattage)).putLong(bits(a.hoursPerDay)).putInt((int) quantity).putLong(bits(a.surgeFactor));
+            buf.putInt(a.windows == null ? -1 : a.windows.length);
+            if (a.windows != null) for (double h : a.windows) buf.putLong(bits(h));
+            if (simulate) {
+                buf.put((byte) (a.schedule == null ? 0 : 1));
+                if (a.schedule != null) for (double f : a.schedule) buf.putLong(bits(f));
+            }
+        }
+        return hex(sha256(buf.array(), buf.position()), 16);
+    }
+
+    public JsonObject get(String key) {
+        JsonObject value;
+        synchronized (memory) {
+            value = memory.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        if (directory != null) {
+            value = readDisk(key);
+            if (value != null) {
+                diskHits.increment();
+                synchronized (memory) {
+                    memory.put(key, value);
+                }
+                return value;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Callers must treat both the stored and the returned object as read-only.
+    public void put(String key, JsonObject value) {
+        synchronized (memory) {
+            memory.put(key, value);
+        }
+        if (directory != null) writeDisk(key, value);
+    }
+
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private JsonObject readDisk(String key) {
+        Path path = file(key);
+        if (!Files.exists(path)) return null;
+        try {
+            return JsonParser.parseString(Files.readString(path, StandardCharsets.UTF_8)).getAsJsonObject();
+        } catch (IOException | RuntimeException e) {
+            diskErrors.increment();
+            return null;
+        }
+    }
+
+    // Write-then-rename, so a crash or a concurrent reader never sees half a file.
+    private void writeDisk(String key, JsonObject value) {
+        Path path = file(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.writeString(tmp, value.toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            diskWrites.increment();
+        } catch (IOException e) {
+            diskErrors.increment();
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (memory) {
+            size = memory.size();
+        }
+        return new Stats(hits.sum(), diskHits.sum(), misses.sum(), evictions.sum(), diskWrites.sum(),
+                diskErrors.sum(), size, maxEntries);
+    }
+
+    static class Stats {
+        final long hits, diskHits, misses, evictions, diskWrites, diskErrors;
+        final int size, maxEntries;
+
+        Stats(long hits, long diskHits, long misses, long evictions, long diskWrites, long diskErrors,
+              int size, int maxEntries) {
+            this.hits = hits;
+            this.diskHits = diskHits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.diskWrites = diskWrites;
+            this.diskErrors = diskErrors;
+            this.size = size;
+            this.maxEntries = maxEntries;
+        }
+
+        public long requests() { return hits + diskHits + misses; }
+
+        public double hitRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : (double) (hits + diskHits) / requests;
+        }
+
+        public JsonObject toJson() {
+            JsonObject o = new JsonObject();
+            o.addProperty("hits", hits);
+            o.addProperty("diskHits", diskHits);
+            o.addProperty("misses", misses);
+            o.addProperty("hitRate", hitRate());
+            o.addProperty("evictions", evictions);
+            o.addProperty("diskWrites", diskWrites);
+            o.addProperty("diskErrors", diskErrors);
+            o.addProperty("size", size);
+            o.addProperty("maxEntries", maxEntries);
+            return o;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cache: %d hits (%d from disk), %d misses, %.1f%% hit rate, %d evictions, %d/%d entries",
+                    hits + diskHits, diskHits, misses, hitRate() * 100, evictions, size, maxEntries);
+        }
+    }
+
+    private static boolean same(Appliance a, Appliance b, boolean simulate) {
+        return Double.compare(a.wattage, b.wattage) == 0 && Double.compare(a.hoursPerDay, b.hoursPerDay) == 0
+                && Double.compare(a.surgeFactor, b.surgeFactor) == 0 && Arrays.equals(a.windows, b.windows)
+                && (!simulate || Arrays.equals(a.schedule, b.schedule));
+    }
+
+    // -0.0 and 0.0 size identically, so they must hash identically.
+    private static long bits(double v) {
+        return Double.doubleToLongBits(v == 0 ? 0.0 : v);
+    }
+
+    private static byte[] sha256(byte[] data, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data, 0, length);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes, int length) {
+        StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = 0; i < length; i++) {
+            sb.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.*;
+import com.google.gson.*;
+
+// One-at-a-time sensitivity of the sizing to a +/- fraction change in each input: sun hours, depth of discharge,
+// inverter efficiency, days of autonomy, and every appliance's wattage and hours. All perturbations come out of
+// one pass over primitive arrays, starting from the base totals: an appliance change only shifts the daily energy
+// by its own share, and a wattage change moves the coincident peak by what a range-max query on the base load
+// timeline allows. Nothing is re-sized from scratch.
+class Sensitivity {
+    static final double DEFAULT_FRACTION = 0.10;
+    static final SolarDesign.Output[] OUTPUTS = {SolarDesign.Output.NUMBER_OF_PANELS,
+            SolarDesign.Output.BATTERY_CAPACITY_AH, SolarDesign.Output.CHARGE_CONTROLLER_CURRENT};
+    private static final String[] PARAMETERS = {"Sun hours", "Depth of discharge", "Inverter efficiency", "Days of autonomy"};
+    private static final String[] KEYS = {"numberOfPanels", "batteryCapacityAh", "chargeControllerCurrent"};
+    private static final int PANELS = 0, BATTERY = 1, CONTROLLER = 2;
+
+    static final class Result {
+        final double fraction;
+        final SolarDesign base;
+        private final String[] names;
+        // [output][input]: the output with that input lowered and raised by fraction.
+        final double[][] low, high;
+        // Inputs by combined relative swing over all outputs, largest first.
+        final int[] ranked;
+
+        private Result(double fraction, SolarDesign base, String[] names, double[][] low, double[][] high, int[] ranked) {
+            this.fraction = fraction;
+            this.base = base;
+            this.names = names;
+            this.low = low;
+            this.high = high;
+            this.ranked = ranked;
+        }
+
+        public int size() { return ranked.length; }
+
+        // Inputs are the four parameters, then wattage and hours for each appliance row in turn.
+        public String label(int input) {
+            if (input < PARAMETERS.length) return PARAMETERS[input];
+            int row = (input - PARAMETERS.length) / 2;
+            return names[row] + ((input - PARAMETERS.length) % 2 == 0 ? " wattage" : " hours");
+        }
+
+        public double base(int output) { return base.get(OUTPUTS[output]); }
+
+        // {"fraction":0.1,"inputs":[{"input":"Sun hours","numberOfPanels":[low,high],...},...]}, most influential first.
+        public JsonObject toJson(int limit) {
+            JsonObject o = new JsonObject();
+            o.addProperty("fraction", fraction);
+            JsonArray inputs = new JsonArray();
+            for (int k = 0; k < Math.min(limit, ranked.length); k++) {
+                int i = ranked[k];
+                JsonObject input = new JsonObject();
+                input.addProperty("input", label(i));
+                for (int out = 0; out < OUTPUTS.length; out++) {
+                    JsonArray range = new JsonArray(2);
+                    range.add(low[out][i]);
+                    range.add(high[out][i]);
+                    input.add(KEYS[out], range);
+                }
+                inputs.add(input);
+            }
+            o.add("inputs", inputs);
+            return o;
+        }
+    }
+
+    public static Result analyze(ApplianceTable table, SolarDesign base, double fraction) {
+        if (!(fraction > 0 && fraction < 1)) throw new IllegalArgumentException("fraction must be between 0 and 1");
+        int rows = table.size();
+        int inputs = PARAMETERS.length + rows * 2;
+        double[][] low = new double[OUTPUTS.length][inputs], high = new double[OUTPUTS.length][inputs];
+        double energy = base.totalDailyEnergy(), peak = base.peakLoad();
+        double sun = base.sunHours(), dod = base.dod(), eff = base.inverterEfficiency(), days = base.daysOfAutonomy();
+        double up = 1 + fraction, down = 1 - fraction;
+
+        size(low, high, 0, energy, peak, sun * down, dod, eff, days, energy, peak, sun * up, dod, eff, days, base);
+        size(low, high, 1, energy, peak, sun, dod * down, eff, days, energy, peak, sun, Math.min(1, dod * up), eff, days, base);
+        size(low, high, 2, energy, peak, sun, dod, eff * down, days, energy, peak, sun, dod, Math.min(1, eff * up), days, base);
+        size(low, high, 3, energy, peak, sun, dod, eff, days * down, energy, peak, sun, dod, eff, days * up, base);
+
+        PeakDemand.Timeline timeline = Double.isNaN(peak) || rows == 0 ? null : PeakDemand.timeline(table);
+        String[] names = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            names[row] = table.name(row);
+            double power = table.wattage(row) * table.quantity(row);
+            double delta = power * table.hoursPerDay(row) * fraction;
+            double peakDown = peak, peakUp = peak;
+            if (timeline != null && power > 0) {
+                double change = power * fraction;
+                double[] windows = table.windows(row);
+                if (windows == null) {
+                    peakDown = peak - change;
+                    peakUp = peak + change;
+                } else {
+                    double[] io = timeline.maxInsideOutside(PeakDemand.intervals(windows));
+                    peakDown = Math.max(io[1], io[0] - change);
+                    peakUp = Math.max(peak, io[0] + change);
+                }
+            }
+            int input = PARAMETERS.length + row * 2;
+            size(low, high, input, energy - delta, peakDown, sun, dod, eff, days, energy + delta, peakUp, sun, dod, eff, days, base);
+            size(low, high, input + 1, energy - delta, peak, sun, dod, eff, days, energy + delta, peak, sun, dod, eff, days, base);
+        }
+        return new Result(fraction, base, names, low, high, rank(low, high, base));
+    }
+
+    // Mirrors SolarDesign.of for the three outputs, so perturbed designs need no SolarDesign of their own.
+    private static void size(double[][] low, double[][] high, int input,
+                             double e0, double p0, double s0, double dod0, double eff0, double days0,
+                             double e1, double p1, double s1, double dod1, double eff1, double days1, SolarDesign base) {
+        double v = base.systemVoltage(), panelWatt = base.panelWatt();
+        double panels0 = Math.ceil(e0 / s0 / panelWatt), panels1 = Math.ceil(e1 / s1 / panelWatt);
+        low[PANELS][input] = panels0;
+        high[PANELS][input] = panels1;
+        low[BATTERY][input] = e0 * days0 / (dod0 * eff0) / v;
+        high[BATTERY][input] = e1 * days1 / (dod1 * eff1) / v;
+        low[CONTROLLER][input] = controller(panels0 * panelWatt, p0, eff0, v);
+        high[CONTROLLER][input] = controller(panels1 * panelWatt, p1, eff1, v);
+    }
+
+    private static double controller(double arrayPower, double peak, double eff, double v) {
+        return (Double.isNaN(peak) ? arrayPower : Math.max(arrayPower, peak / eff)) / v * 1.25;
+    }
+
+    // Sorts on (float swing, input) packed into one long, so the ranking needs no boxed comparator.
+    private static int[] rank(double[][] low, double[][] high, SolarDesign base) {
+        int inputs = low[0].length;
+        double[] scale = new double[OUTPUTS.length];
+        for (int o = 0; o < OUTPUTS.length; o++) {
+            double b = Math.abs(base.get(OUTPUTS[o]));
+            scale[o] = b > 0 ? 1 / b : 0;
+        }
+        long[] keys = new long[inputs];
+        for (int i = 0; i < inputs; i++) {
+            double swing = 0;
+            for (int o = 0; o < OUTPUTS.length; o++) swing += Math.abs(high[o][i] - low[o][i]) * scale[o];
+            keys[i] = (long) Float.floatToIntBits((float) swing) << 32 | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(keys);
+        int[] ranked = new int[inputs];
+        for (int i = 0; i < inputs; i++) ranked[i] = Integer.MAX_VALUE - (int) keys[inputs - 1 - i];
+        return ranked;
+    }
+}
@@ -0,0 +1,47 @@
+import com.google.gson.*;
+
+// A named site-type preset: a name over the same SystemParameters the sizing core uses, so a profile can never
+// hold values the core would reject. Immutable, so one instance is shared by every site that resolves to it.
+record SiteProfile(String name, SystemParameters parameters) {
+
+    SiteProfile {
+        if (name == null || name.isBlank()) throw new IllegalArgumentException("profile needs a name");
+        if (parameters == null) throw new IllegalArgumentException("profile '" + name + "' needs parameters");
+    }
+
+    double sunHours() { return parameters.sunHours(); }
+    double systemVoltage() { return parameters.systemVoltage(); }
+    double panelWatt() { return parameters.panelWatt(); }
+    double daysOfAutonomy() { return parameters.daysOfAutonomy(); }
+    double dod() { return parameters.dod(); }
+    double inverterEfficiency() { return parameters.inverterEfficiency(); }
+
+    static SiteProfile fromJson(String name, JsonObject o) {
+        SystemParameters parameters;
+        try {
+            parameters = new SystemParameters(number(o, name, "sunHours"), number(o, name, "systemVoltage"),
+                    number(o, name, "panelWatt"), number(o, name, "daysOfAutonomy"), number(o, name, "dod"),
+                    number(o, name, "inverterEfficiency"));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("profile '" + name + "': " + e.getMessage(), e);
+        }
+        return new SiteProfile(name, parameters);
+    }
+
+    JsonObject toJson() {
+        JsonObject o = new JsonObject();
+        o.addProperty("sunHours", sunHours());
+        o.addProperty("systemVoltage", systemVoltage());
+        o.addProperty("panelWatt", panelWatt());
+        o.addProperty("daysOfAutonomy", daysOfAutonomy());
+        o.addProperty("dod", dod());
+        o.addProperty("inverterEfficiency", inverterEfficiency());
+        return o;
+    }
+
+    private static double number(JsonObject o, String profile, String field) {
+        JsonElement e = o.get(field);
+        if (e == null || e.isJsonNull()) throw new IllegalArgumentException("profile '" + profile + "' is missing '" + field + "'");
+        return e.getAsDouble();
+    }
+}
@@ -0,0 +1,6 @@
+interface SizingListener {
+    void outputChanged(SolarDesign.Output output, double oldValue, double newValue);
+
+    // Outputs that need the peak cost a sweep over every appliance per change, so they are only reported on request.
+    default boolean wantsPeak() { return false; }
+}
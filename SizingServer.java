@@ -0,0 +1,236 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import com.google.gson.*;
+import com.sun.net.httpserver.*;
+
+class SizingServer {
+    private static final int MAX_BODY_BYTES = 64 << 20;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<Double, double[]> clearSkyProfiles = new ConcurrentHashMap<>();
+    private final ResultCache cache;
+    private final ProfileStore profiles;
+    private final ComponentCatalog catalog;
+    private final IrradianceDataset irradiance;
+
+    public SizingServer(int port, ResultCache cache, ProfileStore profiles, ComponentCatalog catalog,
+                        IrradianceDataset irradiance) throws IOException {
+        this.cache = cache;
+        this.profiles = profiles;
+        this.catalog = catalog;
+        this.irradiance = irradiance;
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        // JDK 17 has no virtual threads; a bounded platform pool sized for short CPU-bound requests stands in.
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/size", exchange -> handle(exchange, this::sizeOne));
+        server.createContext("/size/batch", exchange -> handle(exchange, this::sizeBatch));
+        server.createContext("/portfolio", exchange -> handle(exchange, this::portfolio));
+        server.createContext("/health", exchange -> handleGet(exchange, () -> "{\"status\":\"ok\"}"));
+        server.createContext("/stats", exchange -> handleGet(exchange, this::stats));
+        server.createContext("/profiles", exchange -> handleGet(exchange, this::profiles));
+    }
+
+    public static void run(int port, ResultCache cache, ProfileStore profiles, ComponentCatalog catalog,
+                           IrradianceDataset irradiance) {
+        try {
+            SizingServer s = new SizingServer(port, cache, profiles, catalog, irradiance);
+            s.start();
+            UI.printSuccess("Sizing service listening on http://localhost:" + s.port() + " (POST /size, POST /size/batch, POST /portfolio, GET /stats, GET /profiles)");
+        } catch (IOException e) {
+            UI.printError("Could not start sizing service: " + e.getMessage());
+        }
+    }
+
+    public void start() { server.start(); }
+    public int port() { return server.getAddress().getPort(); }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private interface Handler {
+        String apply(JsonElement body);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            if (!accept(exchange, "POST")) return;
+            JsonElement body;
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (bytes.length > MAX_BODY_BYTES) {
+                    respond(exchange, 413, error("Request body too large"));
+                    return;
+                }
+                body = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+            }
+            respond(exchange, 200, handler.apply(body));
+        } catch (JsonParseException | IllegalArgumentException e) {
+            respond(exchange, 400, error(String.valueOf(e.getMessage())));
+        } catch (RuntimeException e) {
+            // A bug, not a bad request: the details go to the log rather than the caller.
+            System.err.println("[ERROR] " + exchange.getRequestURI().getPath() + ": " + e);
+            respond(exchange, 500, error("Internal error"));
+        }
+    }
+
+    private void handleGet(HttpExchange exchange, java.util.function.Supplier<String> reply) throws IOException {
+        try {
+            if (accept(exchange, "GET")) respond(exchange, 200, reply.get());
+        } catch (RuntimeException e) {
+            System.err.println("[ERROR] " + exchange.getRequestURI().getPath() + ": " + e);
+            respond(exchange, 500, error("Internal error"));
+        }
+    }
+
+    // A context matches every path under it, so anything but the exact path is a 404. False once an error is sent.
+    private static boolean accept(HttpExchange exchange, String method) throws IOException {
+        if (!method.equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", method);
+            respond(exchange, 405, error(method + " required"));
+            return false;
+        }
+        if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+            respond(exchange, 404, error("Not found"));
+            return false;
+        }
+        return true;
+    }
+
+    // Body: one site, same shape as a line of batch JSONL.
+    private String sizeOne(JsonElement body) {
+        BatchRunner.Site site = BatchRunner.Site.fromJson(object(body, "body"), "site", profiles);
+        JsonObject result = new JsonObject();
+        result.addProperty("id", site.id);
+        BatchRunner.sizeSite(site, result, clearSkyProfiles, cache, catalog, irradiance);
+        return result.toString();
+    }
+
+    // Body: {"sites":[...]} or a bare array; a bad site yields an error entry, not a failed request.
+    private String sizeBatch(JsonElement body) {
+        JsonArray sites = sites(body);
+        JsonArray results = new JsonArray(sites.size());
+        int i = 0;
+        for (JsonElement e : sites) {
+            JsonObject result = new JsonObject();
+            String fallbackId = "site-" + (++i);
+            try {
+                BatchRunner.Site site = BatchRunner.Site.fromJson(object(e, "site"), fallbackId, profiles);
+                result.addProperty("id", site.id);
+                BatchRunner.sizeSite(site, result, clearSkyProfiles, cache, catalog, irradiance);
+            } catch (IllegalArgumentException ex) {
+                if (!result.has("id")) result.addProperty("id", fallbackId);
+                result.addProperty("error", String.valueOf(ex.getMessage()));
+            }
+            results.add(result);
+        }
+        JsonObject response = new JsonObject();
+        response.add("results", results);
+        return response.toString();
+    }
+
+    // Body as for /size/batch; replies with fleet totals and percentiles, plus {"id","error"} for each site that
+    // failed. Sites go through the same cached, instrumented sizing as /size, in parallel.
+    private String portfolio(JsonElement body) {
+        JsonArray sites = sites(body);
+        JsonObject[] errors = new JsonObject[sites.size()];
+        PortfolioSummary fleet = java.util.stream.IntStream.range(0, sites.size()).parallel()
+                .mapToObj(i -> portfolioSite(sites.get(i), i, errors))
+                .filter(Objects::nonNull)
+                .collect(PortfolioSummary.collector());
+        JsonArray failures = new JsonArray();
+        for (JsonObject error : errors) {
+            if (error == null) continue;
+            fleet.addFailure();
+            failures.add(error);
+        }
+        JsonObject response = fleet.toJson();
+        response.add("errors", failures);
+        return response.toString();
+    }
+
+    // The site's design, or null with errors[i] filled in.
+    private SolarDesign portfolioSite(JsonElement e, int i, JsonObject[] errors) {
+        String fallbackId = "site-" + (i + 1);
+        JsonObject result = new JsonObject();
+        try {
+            BatchRunner.Site site = BatchRunner.Site.fromJson(object(e, "site"), fallbackId, profiles);
+            result.addProperty("id", site.id);
+            BatchRunner.sizeSite(site, result, clearSkyProfiles, cache, null, irradiance);
+            return BatchRunner.design(site, result);
+        } catch (IllegalArgumentException ex) {
+            JsonObject error = new JsonObject();
+            error.addProperty("id", result.has("id") ? result.get("id").getAsString() : fallbackId);
+            error.addProperty("error", String.valueOf(ex.getMessage()));
+            errors[i] = error;
+            return null;
+        }
+    }
+
+    private static JsonObject object(JsonElement e, String what) {
+        if (!e.isJsonObject()) throw new IllegalArgumentException(what + " must be a JSON object");
+        return e.getAsJsonObject();
+    }
+
+    private static JsonArray sites(JsonElement body) {
+        JsonElement sites = body.isJsonObject() ? body.getAsJsonObject().get("sites") : body;
+        if (sites == null || !sites.isJsonArray()) throw new IllegalArgumentException("body must be [sites...] or {\"sites\":[...]}");
+        return sites.getAsJsonArray();
+    }
+
+    private String stats() {
+        JsonObject o = new JsonObject();
+        o.add("cache", cache != null ? cache.stats().toJson() : JsonNull.INSTANCE);
+        o.addProperty("irradiance", irradiance != null ? irradiance.stats() : null);
+        Metrics m = Metrics.get();
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("enabled", m.isEnabled());
+        String[] ops = m.getOperations();
+        long[] counts = m.getCounts(), errors = m.getErrors();
+        double[] mean = m.getMeanMicros(), p50 = m.getP50Micros(), p99 = m.getP99Micros();
+        for (int i = 0; i < ops.length; i++) {
+            JsonObject op = new JsonObject();
+            op.addProperty("count", counts[i]);
+            op.addProperty("errors", errors[i]);
+            op.addProperty("meanMicros", mean[i]);
+            op.addProperty("p50Micros", p50[i]);
+            op.addProperty("p99Micros", p99[i]);
+            metrics.add(ops[i].toLowerCase(Locale.ROOT), op);
+        }
+        o.add("metrics", metrics);
+        return o.toString();
+    }
+
+    private String profiles() {
+        JsonObject o = new JsonObject();
+        if (profiles != null) {
+            for (String name : profiles.names()) {
+                SiteProfile p = profiles.get(name);
+                if (p != null) o.add(name, p.toJson());
+            }
+        }
+        return o.toString();
+    }
+
+    private static String error(String message) {
+        JsonObject o = new JsonObject();
+        o.addProperty("error", message);
+        return o.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
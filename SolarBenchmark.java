@@ -0,0 +1,146 @@
+import java.util.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+
+public class SolarBenchmark {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURE_ITERATIONS = 10;
+
+    private static volatile Object sink;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    interface Body {
+        Object run() throws Exception;
+    }
+
+    private final List<String> results = new ArrayList<>();
+
+    // Usage: java SolarBenchmark [sizes, e.g. 10,1000,100000,1000000] [results.json]
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals(COLD_LOAD)) {
+            coldLoad(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10, 1_000, 100_000, 1_000_000};
+        SolarBenchmark bench = new SolarBenchmark();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int size : sizes) bench.runAll(size);
+        } finally {
+            System.setOut(console);
+        }
+        String json = "[\n  " + String.join(",\n  ", bench.results) + "\n]\n";
+        if (args.length > 1) {
+            Files.writeString(Path.of(args[1]), json);
+            console.println("Wrote " + bench.results.size() + " results to " + args[1]);
+        } else {
+            console.print(json);
+        }
+    }
+
+    private void runAll(int size) throws Exception {
+        Path dir = Files.createTempDirectory("solar-bench");
+
+        // Cold first: a fresh JVM reads, once, a file this process wrote before anything here was measured.
+        // The file may still be in the OS page cache; what this isolates is class loading, the JIT and the heap.
+        String coldFile = dir.resolve("cold.json").toString();
+        JsonStorage.saveAppliances(new ApplianceIndex(generate(size, 7L)), true, coldFile);
+        results.add(runCold(coldFile, size));
+        Files.deleteIfExists(Path.of(coldFile));
+
+        List<Appliance> appliances = generate(size, 42L);
+        ApplianceIndex index = new ApplianceIndex(appliances);
+        SolarCalculator calc = new SolarCalculator(index);
+        calc.computeSystem(new SystemParameters(5, 24, 300, 2, 0.8, 0.9));
+
+        measure("calc.getTotalDailyEnergy", size, false, () -> calc.getTotalDailyEnergy());
+        measure("index.getTotalDailyEnergy", size, false, () -> index.getTotalDailyEnergy());
+        measure("calc.displayReport", size, false, () -> {
+            calc.displayReport();
+            return null;
+        });
+
+        // The Swing report pane and its TXT/CSV export, through the same code the solarui workers run.
+        SolarDesign design = calc.getDesign();
+        measure("solarui.buildReport", size, false, () -> solarui.buildReport(index.table(), design));
+        solarui.Report report = solarui.buildReport(index.table(), design);
+        measure("solarui.writeReport.txt", size, false, () -> solarui.writeReport(report, false, dir, size));
+        measure("solarui.writeReport.csv", size, false, () -> solarui.writeReport(report, true, dir, size));
+        Files.deleteIfExists(dir.resolve("solar_report.txt"));
+        Files.deleteIfExists(dir.resolve("solar_report.csv"));
+
+        String warmFile = dir.resolve("warm.json").toString();
+        JsonStorage.saveAppliances(index, true, warmFile);
+        measure("JsonStorage.saveAppliances", size, false, () -> {
+            JsonStorage.saveAppliances(index, true, warmFile);
+            return null;
+        });
+        measure("JsonStorage.loadIndex", size, false, () -> JsonStorage.loadIndex(warmFile));
+
+        Files.deleteIfExists(Path.of(warmFile));
+        Files.deleteIfExists(dir);
+    }
+
+    private static final String COLD_LOAD = "--cold-load";
+
+    // Same JVM binary, class path and heap flags as this one; the child prints its single result line.
+    private static String runCold(String file, int size) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), SolarBenchmark.class.getName(),
+                COLD_LOAD, file, String.valueOf(size)));
+        Process child = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String output;
+        try (InputStream in = child.getInputStream()) {
+            output = new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8).trim();
+        }
+        int exit = child.waitFor();
+        if (exit != 0 || output.isEmpty()) throw new IOException("Cold load of " + file + " failed with exit code " + exit);
+        return output;
+    }
+
+    private static void coldLoad(String file, int size) throws Exception {
+        SolarBenchmark bench = new SolarBenchmark();
+        bench.measure("JsonStorage.loadIndex", size, true, () -> JsonStorage.loadIndex(file));
+        System.out.println(bench.results.get(0));
+    }
+
+    private void measure(String name, int size, boolean cold, Body body) throws Exception {
+        int warmups = cold ? 0 : WARMUP_ITERATIONS;
+        int iterations = cold ? 1 : MEASURE_ITERATIONS;
+        for (int i = 0; i < warmups; i++) sink = body.run();
+
+        long thread = Thread.currentThread().getId();
+        long[] times = new long[iterations];
+        long allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            sink = body.run();
+            times[i] = System.nanoTime() - start;
+            allocated += THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+        }
+        Arrays.sort(times);
+        double mean = Arrays.stream(times).average().orElse(0);
+        results.add(String.format(Locale.ROOT,
+                "{\"benchmark\":\"%s\",\"size\":%d,\"mode\":\"%s\",\"iterations\":%d,"
+                        + "\"meanNs\":%.1f,\"minNs\":%d,\"p50Ns\":%d,\"maxNs\":%d,\"allocBytesPerOp\":%d}",
+                name, size, cold ? "cold" : "warm", iterations,
+                mean, times[0], times[iterations / 2], times[iterations - 1], allocated / iterations));
+    }
+
+    private static List<Appliance> generate(int size, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        List<Appliance> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new Appliance("appliance-" + i, 5 + rng.nextInt(2000), 1 + rng.nextInt(4), 0.5 + rng.nextInt(48) / 2.0));
+        }
+        return list;
+    }
+}
@@ -1,67 +1,199 @@
 import java.util.*;
 import java.io.*;
-import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
 
+// Live sizing for an appliance list that is edited in place. Each change publishes a new immutable SolarDesign,
+// so a design handed to another thread or a renderer never changes underneath it. The energy-driven outputs move
+// in O(1) per change; the peak sweep only runs once something asks for the full design.
 class SolarCalculator {
-    List<Appliance> appliances;
-    double sunHours, systemVoltage, panelWatt, daysOfAutonomy, dod, inverterEfficiency;
+    final ApplianceIndex appliances;
+    private double totalDailyEnergy;
+    private PeakDemand.Result peak;
+    private SystemParameters parameters;
+    // Sized from the daily energy alone, so its peak-dependent outputs are not meaningful.
+    private SolarDesign energyDesign;
+    // The full design, or null until asked for after a change; lastFull is the latest one built.
+    private volatile SolarDesign design;
+    private SolarDesign lastFull;
+    private final List<SizingListener> listeners = new ArrayList<>();
 
-    public SolarCalculator(List<Appliance> appliances) { this.appliances = appliances; }
-    public double getTotalDailyEnergy() { return appliances.stream().mapToDouble(Appliance::getDailyConsumption).sum(); }
-    public void computeSystem(double sunHours, double systemVoltage, double panelWatt, double daysOfAutonomy, double dod, double inverterEfficiency) {
-        this.sunHours = sunHours;
-        this.systemVoltage = systemVoltage;
-        this.panelWatt = panelWatt;
-        this.daysOfAutonomy = daysOfAutonomy;
-        this.dod = dod;
-        this.inverterEfficiency = inverterEfficiency;
+    public SolarCalculator(List<Appliance> appliances) { this(new ApplianceIndex(appliances)); }
+    public SolarCalculator(ApplianceIndex appliances) {
+        this.appliances = appliances;
+        this.totalDailyEnergy = appliances.getTotalDailyEnergy();
+    }
+    public double getTotalDailyEnergy() { return totalDailyEnergy; }
+
+    public SolarDesign computeSystem(SystemParameters parameters) {
+        long start = Metrics.start();
+        setParameters(parameters);
+        SolarDesign d = getDesign();
+        Metrics.record(Metrics.Op.COMPUTE, start, appliances.size(), 0);
+        return d;
+    }
+
+    // Designs for the month with the least sun, so the array and battery hold up all year. Returns that month (0-11).
+    public int computeSystem(IrradianceDataset.Monthly monthly, SystemParameters parameters) {
+        int month = monthly.worstMonth();
+        computeSystem(parameters.withSunHours(monthly.peakSunHours()[month]));
+        return month;
+    }
+
+    // Re-sizes from the running totals only; the peak is kept, since the appliances did not change.
+    public void setParameters(SystemParameters parameters) {
+        this.parameters = parameters;
+        refresh();
+    }
+
+    public void addListener(SizingListener listener) { listeners.add(listener); }
+    public void removeListener(SizingListener listener) { listeners.remove(listener); }
+
+    public void addAppliance(Appliance a) {
+        appliances.add(a);
+        totalDailyEnergy += a.getDailyConsumption();
+        peak = null;
+        refresh();
+    }
+
+    // One refresh for the whole batch, however many appliances it holds.
+    public void addAll(Iterable<Appliance> batch) {
+        double added = 0;
+        for (Appliance a : batch) {
+            appliances.add(a);
+            added += a.getDailyConsumption();
+        }
+        totalDailyEnergy += added;
+        peak = null;
+        refresh();
+    }
+
+    public void clear() {
+        appliances.clear();
+        totalDailyEnergy = 0;
+        peak = null;
+        refresh();
+    }
+
+    public void removeAppliance(Appliance a) {
+        int removed = appliances.remove(a);
+        if (removed == 0) return;
+        totalDailyEnergy = appliances.isEmpty() ? 0 : totalDailyEnergy - a.wattage * removed * a.hoursPerDay;
+        peak = null;
+        refresh();
+    }
+
+    public void editAppliance(Appliance before, Appliance after) {
+        int removed = appliances.remove(before);
+        if (removed == 0) return;
+        appliances.add(after);
+        totalDailyEnergy += after.getDailyConsumption() - before.wattage * removed * before.hoursPerDay;
+        peak = null;
+        refresh();
+    }
+
+    // The latest design, or null before computeSystem. Runs the peak sweep if the appliances changed since the last call.
+    public SolarDesign getDesign() {
+        SolarDesign d = design;
+        if (d == null && parameters != null) {
+            PeakDemand.Result p = getPeakDemand();
+            d = SolarDesign.of(totalDailyEnergy, p.peakWatts, p.surgeWatts, parameters);
+            design = d;
+            lastFull = d;
+        }
+        return d;
+    }
+
+    private SolarDesign requireDesign() {
+        SolarDesign d = getDesign();
+        if (d == null) throw new IllegalStateException("computeSystem has not been called");
+        return d;
+    }
+
+    public HourlySimulation.Result simulateYear(double[] solarProfile) {
+        SolarDesign d = requireDesign();
+        return HourlySimulation.run(appliances.table().hourlyLoad(), solarProfile,
+                d.totalArrayPower(), d.batteryCapacityWh(), d.dod(), d.inverterEfficiency());
+    }
+
+    public MonteCarlo.Result estimateDepletionRisk(MonteCarlo model, long trials, long seed) {
+        SolarDesign d = requireDesign();
+        return model.estimate(appliances.table().dailyConsumptions(), d.totalArrayPower(), d.sunHours(),
+                d.batteryCapacityWh(), d.dod(), d.inverterEfficiency(), trials, seed);
+    }
+
+    // O(1): only the energy-driven outputs are recomputed. The peak sweep (O(n log n)) runs here only when a
+    // listener has asked for the peak-dependent outputs; otherwise it waits for getDesign.
+    // The first design after setParameters is reported against NaN, so listeners see every output once.
+    private void refresh() {
+        if (parameters == null) return;
+        SolarDesign previous = energyDesign, previousFull = lastFull;
+        energyDesign = SolarDesign.of(totalDailyEnergy, parameters);
+        design = null;
+        if (listeners.isEmpty()) return;
+        notify(previous, energyDesign, false);
+        for (SizingListener l : listeners) {
+            if (!l.wantsPeak()) continue;
+            notify(previousFull, getDesign(), true);
+            break;
+        }
+    }
+
+    private void notify(SolarDesign previous, SolarDesign next, boolean peakOutputs) {
+        for (SolarDesign.Output output : SolarDesign.Output.values()) {
+            if (output.needsPeak() != peakOutputs) continue;
+            double oldValue = previous != null ? previous.get(output) : Double.NaN, newValue = next.get(output);
+            if (Double.compare(oldValue, newValue) == 0) continue;
+            for (SizingListener l : listeners) {
+                if (!peakOutputs || l.wantsPeak()) l.outputChanged(output, oldValue, newValue);
+            }
+        }
+    }
+
+    public PeakDemand.Result getPeakDemand() {
+        if (peak == null) peak = PeakDemand.compute(appliances.table());
+        return peak;
     }
 
     public void displayReport() {
-        double totalDailyEnergy = getTotalDailyEnergy();
-        double totalSolarPower = totalDailyEnergy / sunHours;
-        int numberOfPanels = (int) Math.ceil(totalSolarPower / panelWatt);
-        double batteryCapacityWh = (totalDailyEnergy * daysOfAutonomy) / (dod * inverterEfficiency);
-        double batteryCapacityAh = batteryCapacityWh / systemVoltage;
-        double inverterSize = totalDailyEnergy / inverterEfficiency;
-        double chargeControllerCurrent = (panelWatt * numberOfPanels) / systemVoltage * 1.25;
-
-        UI.printHeader("SOLAR SYSTEM CALCULATION RESULTS");
-
-        System.out.println("\n+-------------------------------------+----------------------+");
-        System.out.println("| ENERGY REQUIREMENTS                 |                      |");
-        System.out.println("+-------------------------------------+----------------------+");
-        printTableRow("Total Daily Load", String.format("%.2f Wh", totalDailyEnergy));
-        printTableRow("Required Solar Power", String.format("%.2f W", totalSolarPower));
-
-        System.out.println("+-------------------------------------+----------------------+");
-        System.out.println("| SOLAR PANELS                        |                      |");
-        System.out.println("+-------------------------------------+----------------------+");
-        printTableRow("Number of Panels", String.format("%d panels", numberOfPanels));
-        printTableRow("Panel Rating", String.format("%.0f W each", panelWatt));
-        printTableRow("Total Array Power", String.format("%.0f W", panelWatt * numberOfPanels));
-
-        System.out.println("+-------------------------------------+----------------------+");
-        System.out.println("| BATTERY SYSTEM                      |                      |");
-        System.out.println("+-------------------------------------+----------------------+");
-        printTableRow("Battery Capacity", String.format("%.2f Ah", batteryCapacityAh));
-        printTableRow("System Voltage", String.format("%.0f V", systemVoltage));
-        printTableRow("Total Energy Storage", String.format("%.2f Wh", batteryCapacityWh));
-        printTableRow("Days of Autonomy", String.format("%.1f days", daysOfAutonomy));
-
-        System.out.println("+-------------------------------------+----------------------+");
-        System.out.println("| POWER ELECTRONICS                   |                      |");
-        System.out.println("+-------------------------------------+----------------------+");
-        printTableRow("Inverter Size", String.format("%.2f W", inverterSize));
-        printTableRow("Charge Controller", String.format("%.2f A", chargeControllerCurrent));
-        System.out.println("+-------------------------------------+----------------------+");
-
-        UI.printWarning("\nWARNING: Add 10-20% safety margin to all values for real installations");
-        UI.printInfo("INFO: Consult a certified solar installer for final system design");
-    }
-
-    private void printTableRow(String label, String value) {
-        System.out.printf("| %-35s | %20s |\n", label, value);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 4096);
+        try {
+            writeReport(ReportRenderer.Format.TEXT, out);
+            out.flush();
+        } catch (IOException e) {
+            UI.printError("Error writing report: " + e.getMessage());
+        }
+    }
+
+    // Ranked tornado data for +/- fraction on every input, computed from the current design in one pass.
+    public Sensitivity.Result getSensitivity(double fraction) {
+        return Sensitivity.analyze(appliances.table(), requireDesign(), fraction);
+    }
+
+    public void displaySensitivity(double fraction, int limit) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 4096);
+        try {
+            new ReportRenderer(requireDesign()).withSensitivity(getSensitivity(fraction), limit)
+                    .renderSensitivity(ReportRenderer.Format.TEXT, out);
+            out.flush();
+        } catch (IOException e) {
+            UI.printError("Error writing sensitivity: " + e.getMessage());
+        }
+    }
+
+    public void writeReport(ReportRenderer.Format format, Appendable out) throws IOException {
+        writeReport(format, out, null, 0);
+    }
+
+    // tornado may be null; otherwise its top `limit` inputs follow the report in the same format.
+    public void writeReport(ReportRenderer.Format format, Appendable out, Sensitivity.Result tornado, int limit) throws IOException {
+        long start = Metrics.start();
+        try {
+            ReportRenderer renderer = new ReportRenderer(requireDesign());
+            if (tornado != null) renderer.withSensitivity(tornado, limit);
+            renderer.render(format, out);
+        } catch (IOException | RuntimeException e) {
+            Metrics.failed(Metrics.Op.RENDER, start);
+            throw e;
+        }
+        Metrics.record(Metrics.Op.RENDER, start, appliances.size(), 0);
     }
 }
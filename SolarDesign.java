@@ -0,0 +1,81 @@
+// A sized system: worked out once from the daily load, the coincident peak and the parameters, then only read.
+// Every component is a primitive or an immutable record, so a design can be handed to any thread as is.
+record SolarDesign(SystemParameters parameters, double totalDailyEnergy, double peakLoad, double surgeLoad,
+                   double totalSolarPower, int numberOfPanels, double totalArrayPower, double batteryCapacityWh,
+                   double batteryCapacityAh, double inverterSize, double chargeControllerCurrent) {
+
+    enum Output {
+        TOTAL_DAILY_ENERGY, TOTAL_SOLAR_POWER, NUMBER_OF_PANELS, TOTAL_ARRAY_POWER,
+        BATTERY_CAPACITY_WH, BATTERY_CAPACITY_AH, PEAK_LOAD, SURGE_LOAD, INVERTER_SIZE, CHARGE_CONTROLLER_CURRENT;
+
+        // Outputs that need the coincident peak, and so a sweep over the load windows; the rest follow the daily energy.
+        boolean needsPeak() { return compareTo(PEAK_LOAD) >= 0; }
+    }
+
+    // Without a load profile the inverter falls back to the daily energy over efficiency, which overstates it.
+    static SolarDesign of(double totalDailyEnergy, SystemParameters p) {
+        return of(totalDailyEnergy, Double.NaN, Double.NaN, p);
+    }
+
+    // The inverter's continuous rating covers the running peak. The controller covers the larger of the
+    // charging current and the DC draw behind the inverter at that peak, with 25% headroom. Peaks in W;
+    // NaN when only the daily total is known.
+    static SolarDesign of(double totalDailyEnergy, double peakLoad, double surgeLoad, SystemParameters p) {
+        double totalSolarPower = totalDailyEnergy / p.sunHours();
+        int numberOfPanels = (int) Math.ceil(totalSolarPower / p.panelWatt());
+        double totalArrayPower = p.panelWatt() * numberOfPanels;
+        double batteryCapacityWh = (totalDailyEnergy * p.daysOfAutonomy()) / (p.dod() * p.inverterEfficiency());
+        double inverterSize, chargeControllerCurrent;
+        if (Double.isNaN(peakLoad)) {
+            inverterSize = totalDailyEnergy / p.inverterEfficiency();
+            chargeControllerCurrent = totalArrayPower / p.systemVoltage() * 1.25;
+        } else {
+            inverterSize = peakLoad;
+            chargeControllerCurrent = Math.max(totalArrayPower, peakLoad / p.inverterEfficiency()) / p.systemVoltage() * 1.25;
+        }
+        return new SolarDesign(p, totalDailyEnergy, peakLoad, surgeLoad, totalSolarPower, numberOfPanels, totalArrayPower,
+                batteryCapacityWh, batteryCapacityWh / p.systemVoltage(), inverterSize, chargeControllerCurrent);
+    }
+
+    static SolarDesign of(ApplianceTable table, SystemParameters p) {
+        PeakDemand.Result peak = PeakDemand.compute(table);
+        return of(table.totalDailyEnergy(), peak.peakWatts, peak.surgeWatts, p);
+    }
+
+    // Touches nothing shared, so any number of threads may size at once.
+    static SolarDesign of(Iterable<Appliance> appliances, SystemParameters p) {
+        long start = Metrics.start();
+        double total = 0;
+        int count = 0;
+        for (Appliance a : appliances) {
+            total += a.getDailyConsumption();
+            count++;
+        }
+        PeakDemand.Result peak = PeakDemand.compute(appliances);
+        SolarDesign design = of(total, peak.peakWatts, peak.surgeWatts, p);
+        Metrics.record(Metrics.Op.COMPUTE, start, count, 0);
+        return design;
+    }
+
+    double sunHours() { return parameters.sunHours(); }
+    double systemVoltage() { return parameters.systemVoltage(); }
+    double panelWatt() { return parameters.panelWatt(); }
+    double daysOfAutonomy() { return parameters.daysOfAutonomy(); }
+    double dod() { return parameters.dod(); }
+    double inverterEfficiency() { return parameters.inverterEfficiency(); }
+
+    public double get(Output output) {
+        switch (output) {
+            case TOTAL_DAILY_ENERGY: return totalDailyEnergy;
+            case TOTAL_SOLAR_POWER: return totalSolarPower;
+            case NUMBER_OF_PANELS: return numberOfPanels;
+            case TOTAL_ARRAY_POWER: return totalArrayPower;
+            case BATTERY_CAPACITY_WH: return batteryCapacityWh;
+            case BATTERY_CAPACITY_AH: return batteryCapacityAh;
+            case PEAK_LOAD: return peakLoad;
+            case SURGE_LOAD: return surgeLoad;
+            case INVERTER_SIZE: return inverterSize;
+            default: return chargeControllerCurrent;
+        }
+    }
+}
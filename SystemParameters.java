@@ -0,0 +1,15 @@
+// Everything a design needs besides the loads. Checked once on construction and never changed, so one
+// instance can be shared by every thread and every design that uses it.
+record SystemParameters(double sunHours, double systemVoltage, double panelWatt, double daysOfAutonomy,
+                        double dod, double inverterEfficiency) {
+
+    SystemParameters {
+        if (!(sunHours > 0) || !(systemVoltage > 0) || !(panelWatt > 0) || !(daysOfAutonomy > 0)
+                || !(dod > 0) || dod > 1 || !(inverterEfficiency > 0) || inverterEfficiency > 1)
+            throw new IllegalArgumentException("parameters out of range");
+    }
+
+    SystemParameters withSunHours(double sunHours) {
+        return new SystemParameters(sunHours, systemVoltage, panelWatt, daysOfAutonomy, dod, inverterEfficiency);
+    }
+}
@@ -0,0 +1,135 @@
+// Merging t-digest (Dunning): a constant-size quantile sketch. Points are buffered and folded into at most
+// ~compression centroids, kept small near the tails so extreme percentiles stay accurate. Not thread-safe;
+// give each thread its own digest and merge() them.
+class TDigest {
+    static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private double[] mean, weight;
+    private int centroids;
+    private final double[] bufferMean, bufferWeight;
+    private int buffered;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() { this(DEFAULT_COMPRESSION); }
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression * 2) + 8;
+        mean = new double[capacity];
+        weight = new double[capacity];
+        bufferMean = new double[capacity * 5];
+        bufferWeight = new double[capacity * 5];
+    }
+
+    public void add(double x) { add(x, 1); }
+
+    public void add(double x, double w) {
+        if (Double.isNaN(x)) return;
+        if (buffered == bufferMean.length) compress();
+        bufferMean[buffered] = x;
+        bufferWeight[buffered++] = w;
+        totalWeight += w;
+        if (x < min) min = x;
+        if (x > max) max = x;
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            if (buffered == bufferMean.length) compress();
+            bufferMean[buffered] = other.mean[i];
+            bufferWeight[buffered++] = other.weight[i];
+        }
+        totalWeight += other.totalWeight;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+    }
+
+    public double size() { return totalWeight; }
+    public double min() { return totalWeight == 0 ? Double.NaN : min; }
+    public double max() { return totalWeight == 0 ? Double.NaN : max; }
+
+    public double quantile(double q) {
+        compress();
+        if (centroids == 0) return Double.NaN;
+        if (centroids == 1) return mean[0];
+        double index = q * totalWeight;
+        if (index < weight[0] / 2) return min + (mean[0] - min) * index / (weight[0] / 2);
+        double cumulative = weight[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weight[i] + weight[i + 1]) / 2;
+            if (cumulative + step > index) return mean[i] + (mean[i + 1] - mean[i]) * (index - cumulative) / step;
+            cumulative += step;
+        }
+        int last = centroids - 1;
+        return Math.min(max, mean[last] + (max - mean[last]) * (index - cumulative) / (weight[last] / 2));
+    }
+
+    // Sorts centroids and buffer together, then greedily merges neighbours while a centroid stays under the
+    // 4 * N * q * (1 - q) / compression size bound.
+    private void compress() {
+        if (buffered == 0) return;
+        int n = centroids + buffered;
+        double[] m = new double[n], w = new double[n];
+        System.arraycopy(mean, 0, m, 0, centroids);
+        System.arraycopy(weight, 0, w, 0, centroids);
+        System.arraycopy(bufferMean, 0, m, centroids, buffered);
+        System.arraycopy(bufferWeight, 0, w, centroids, buffered);
+        sort(m, w, 0, n - 1);
+
+        int out = 0;
+        double soFar = 0, curMean = m[0], curWeight = w[0];
+        for (int i = 1; i < n; i++) {
+            double proposed = curWeight + w[i];
+            double q = (soFar + proposed / 2) / totalWeight;
+            if (proposed <= Math.max(1, 4 * totalWeight * q * (1 - q) / compression)) {
+                curMean += (m[i] - curMean) * w[i] / proposed;
+                curWeight = proposed;
+            } else {
+                out = emit(out, curMean, curWeight);
+                soFar += curWeight;
+                curMean = m[i];
+                curWeight = w[i];
+            }
+        }
+        centroids = emit(out, curMean, curWeight);
+        buffered = 0;
+    }
+
+    private int emit(int out, double m, double w) {
+        if (out == mean.length) {
+            mean = java.util.Arrays.copyOf(mean, out * 2);
+            weight = java.util.Arrays.copyOf(weight, out * 2);
+        }
+        mean[out] = m;
+        weight[out] = w;
+        return out + 1;
+    }
+
+    // Quicksort on parallel arrays, keyed on m.
+    private static void sort(double[] m, double[] w, int lo, int hi) {
+        while (lo < hi) {
+            double pivot = m[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (m[i] < pivot) i++;
+                while (m[j] > pivot) j--;
+                if (i <= j) {
+                    double t = m[i]; m[i] = m[j]; m[j] = t;
+                    t = w[i]; w[i] = w[j]; w[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (j - lo < hi - i) {
+                sort(m, w, lo, j);
+                lo = i;
+            } else {
+                sort(m, w, i, hi);
+                hi = j;
+            }
+        }
+    }
+}
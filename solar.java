@@ -6,6 +6,27 @@ import com.google.gson.reflect.TypeToken;
 public class solar {
 
     public static void main(String[] args) {
+        // Small JSON replies from the sizing service otherwise stall ~40 ms per request on Nagle + delayed ACK.
+        // The JDK reads this once, when its HTTP server first loads, so it is set before anything can start one;
+        // -Dsun.net.httpserver.nodelay=false on the command line still wins.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+        if (args.length >= 3 && (args[0].equals("--to-snapshot") || args[0].equals("--to-json"))) {
+            convertSnapshot(args);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--sweep")) {
+            runSweep(args);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--import")) {
+            importAppliances(args);
+            return;
+        }
+        if (args.length >= 1 && (args[0].equals("--batch") || args[0].equals("--portfolio") || args[0].equals("--serve"))) {
+            runHeadless(args);
+            return;
+        }
+
         Scanner sc = new Scanner(System.in);
         List<Appliance> appliances = new ArrayList<>();
 
@@ -28,12 +49,21 @@ public class solar {
                 return;
             }
 
+            // Cleared when the saved file exists but cannot be read, so this session never writes over it.
+            boolean canSave = true;
             if (option == 2) {
-                appliances = JsonStorage.loadAppliances();
-                if (appliances.isEmpty()) {
-                    UI.printWarning("\n[WARNING] No saved data found. Starting fresh...");
-                } else {
-                    UI.printSuccess("\nLoaded " + appliances.size() + " appliances from file");
+                try {
+                    appliances = JsonStorage.loadAppliances();
+                    if (appliances.isEmpty()) {
+                        UI.printWarning("\n[WARNING] No saved data found. Starting fresh...");
+                    } else {
+                        UI.printSuccess("\nLoaded " + appliances.size() + " appliances from file");
+                    }
+                } catch (IOException e) {
+                    System.out.println();
+                    UI.printError(e.getMessage());
+                    UI.printWarning("[WARNING] Continuing without saved data; saving is disabled for this session");
+                    canSave = false;
                 }
             }
 
@@ -55,20 +85,26 @@ public class solar {
                 double watt = inputPositiveDouble(sc, "> Wattage (W): ");
                 int qty = inputPositiveInt(sc, "> Quantity: ");
                 double hrs = inputRangeDouble(sc, "> Hours per day: ", 0, 24);
+                double[] windows = inputWindows(sc, "> On/off times, e.g. 18-23,6-8 (Enter if unknown): ");
+                double surge = inputSurge(sc, "> Start-up surge factor (Enter for none): ");
 
-                appliances.add(new Appliance(name, watt, qty, hrs));
+                appliances.add(new Appliance(name, watt, qty, hrs, null, windows, surge));
                 UI.printSuccess("Added: " + qty + " x " + name + " (" + watt + "W x " + hrs + "h = " + (watt * qty * hrs) + "Wh/day)");
                 System.out.println();
                 count++;
             }
 
-            if (!appliances.isEmpty()) {
+            if (!appliances.isEmpty() && canSave) {
                 System.out.print("\nSave appliances to file? (y/n): ");
                 if (sc.nextLine().trim().equalsIgnoreCase("y")) {
-                    List<Appliance> existing = JsonStorage.loadAppliances();
-                    existing.addAll(appliances);
-                    JsonStorage.saveAppliances(existing);
-                    appliances = existing;
+                    try {
+                        ApplianceIndex index = option == 2 ? new ApplianceIndex() : JsonStorage.loadIndex();
+                        index.addAll(appliances);
+                        JsonStorage.saveAppliances(index, true);
+                        appliances = index.toList();
+                    } catch (IOException e) {
+                        UI.printError(e.getMessage() + "; appliances were not saved");
+                    }
                 }
             }
 
@@ -77,7 +113,8 @@ public class solar {
             UI.printHeader("SYSTEM PARAMETERS");
             System.out.println();
 
-            double sunHours = inputRangeDouble(sc, "> Average sun hours per day (3-8): ", 1, 12);
+            IrradianceDataset.Monthly monthly = inputLocation(sc);
+            double sunHours = monthly != null ? monthly.worst() : inputRangeDouble(sc, "> Average sun hours per day (3-8): ", 1, 12);
             double systemVoltage = inputChoice(sc, "> System voltage: ", new double[]{12, 24, 48});
             double panelWatt = inputPositiveDouble(sc, "> Solar panel wattage (W): ");
             double days = inputRangeDouble(sc, "> Days of autonomy (1-5): ", 1, 10);
@@ -85,8 +122,27 @@ public class solar {
             double invEff = inputRangeDouble(sc, "> Inverter efficiency (0.85-0.95 typical): ", 0.5, 1.0);
 
             SolarCalculator calc = new SolarCalculator(appliances);
-            calc.computeSystem(sunHours, systemVoltage, panelWatt, days, dod, invEff);
+            SystemParameters parameters = new SystemParameters(sunHours, systemVoltage, panelWatt, days, dod, invEff);
+            if (monthly != null) {
+                int month = calc.computeSystem(monthly, parameters);
+                UI.printInfo(String.format("INFO: Sized for %s, the darkest month at %s (%.2f sun hours; annual average %.2f)",
+                        IrradianceDataset.MONTHS[month], monthly.location(), sunHours, monthly.annualAverage()));
+            } else {
+                calc.computeSystem(parameters);
+            }
             calc.displayReport();
+            System.out.println();
+            calc.displaySensitivity(Sensitivity.DEFAULT_FRACTION, 10);
+            printComponents(calc.getDesign());
+
+            // A million trials outlasts the rest of the report, so the risk estimate only runs when asked for.
+            System.out.print("\nEstimate battery depletion risk? (y/n): ");
+            if (sc.nextLine().trim().equalsIgnoreCase("y")) {
+                MonteCarlo model = new MonteCarlo();
+                MonteCarlo.Result risk = calc.estimateDepletionRisk(model, 1_000_000, 42L);
+                UI.printInfo(String.format("INFO: Battery depletion risk over %d-day runs: %.2f%% (+/- %.2f%%, %,d trials)",
+                        model.daysPerTrial, risk.probability() * 100, risk.confidence95() * 100, risk.trials));
+            }
 
             System.out.println("\n================================================================");
             System.out.println("  Calculation complete! Press Enter to exit...");
@@ -97,6 +153,33 @@ public class solar {
         }
     }
 
+    // Optional: when components.csv sits next to the program, the report is followed by matching parts.
+    private static void printComponents(SolarDesign design) {
+        if (!new File("components.csv").exists()) return;
+        ComponentCatalog catalog;
+        try {
+            catalog = ComponentCatalog.load("components.csv");
+        } catch (IOException e) {
+            UI.printWarning("[WARNING] Could not read components.csv: " + e.getMessage());
+            return;
+        }
+        List<ComponentCatalog.Line> lines = catalog.match(design);
+        if (lines.isEmpty()) return;
+        UI.printHeader("MATCHED COMPONENTS");
+        System.out.println("\n+------------+--------------------------+-------+---------+------------+");
+        System.out.println("| Kind       | SKU                      |  Qty  | Layout  |       Cost |");
+        System.out.println("+------------+--------------------------+-------+---------+------------+");
+        double total = 0;
+        for (ComponentCatalog.Line l : lines) {
+            total += l.cost();
+            System.out.printf("| %-10s | %-24s | %5d | %-7s | %10.2f |\n", l.part().kind().name().toLowerCase(),
+                    truncate(l.part().sku(), 24), l.quantity(), l.arrangement(), l.cost());
+        }
+        System.out.println("+------------+--------------------------+-------+---------+------------+");
+        System.out.printf("| %-55s | %10.2f |\n", "TOTAL", total);
+        System.out.println("+---------------------------------------------------------+------------+");
+    }
+
     private static void displayApplianceTable(List<Appliance> appliances) {
         if (appliances.isEmpty()) {
             UI.printWarning("\n[WARNING] No appliances configured");
@@ -126,6 +209,201 @@ public class solar {
         return str.length() > maxLen ? str.substring(0, maxLen - 3) + "..." : str;
     }
 
+    // solar --to-snapshot <in.json> <out.snap> [--deflate] | --to-json <in.snap> <out.json>
+    private static void convertSnapshot(String[] args) {
+        try {
+            long start = System.nanoTime();
+            int count = args[0].equals("--to-snapshot")
+                    ? ApplianceSnapshot.importJson(args[1], java.nio.file.Paths.get(args[2]),
+                            args.length > 3 && args[3].equals("--deflate"))
+                    : ApplianceSnapshot.exportJson(java.nio.file.Paths.get(args[1]), args[2], true);
+            UI.printSuccess(String.format("Converted %d appliances to %s in %.1f ms", count, args[2],
+                    (System.nanoTime() - start) / 1e6));
+        } catch (IOException | RuntimeException e) {
+            UI.printError("Conversion failed: " + e.getMessage());
+        }
+    }
+
+    // solar --import <file.csv|file.tsv> [--replace]: adds the rows to appliances.json, or replaces its contents.
+    private static void importAppliances(String[] args) {
+        boolean replace = args.length > 2 && args[2].equals("--replace");
+        ApplianceIndex index;
+        ApplianceImporter.Result result;
+        try {
+            index = replace ? new ApplianceIndex() : JsonStorage.loadIndex();
+            result = ApplianceImporter.importFile(java.nio.file.Paths.get(args[1]), index);
+        } catch (IOException e) {
+            UI.printError("Import failed: " + e.getMessage());
+            return;
+        }
+        UI.printSuccess(String.format("Imported %,d of %,d rows from %s in %.1f ms (%,.0f rows/s)", result.imported(),
+                result.rows(), args[1], result.nanos() / 1e6, result.rowsPerSecond()));
+        if (result.failed() > 0) {
+            UI.printWarning(String.format("[WARNING] %,d rows skipped:", result.failed()));
+            int shown = Math.min(20, result.errors().size());
+            for (int i = 0; i < shown; i++) System.out.println("  " + result.errors().get(i));
+            if (result.failed() > shown) System.out.println(String.format("  ... and %,d more", result.failed() - shown));
+        }
+        if (result.imported() > 0 || replace) JsonStorage.saveAppliances(index, true);
+    }
+
+    // solar --sweep <components.csv> [--energy <Wh/day>] [--sun 4,5] [--voltage 12,24,48] [--days 1,2,3]
+    // [--dod 0.5,0.8] [--efficiency 0.9]: the cheapest design for each autonomy, priced from the catalog, down to
+    // the designs no other beats on both cost and autonomy. The load comes from appliances.json unless --energy is given.
+    private static void runSweep(String[] args) {
+        double[] sun = {5}, voltages = {12, 24, 48}, days = {1, 2, 3, 4, 5}, dods = {0.5, 0.6, 0.7, 0.8}, efficiencies = {0.9};
+        double energy = Double.NaN;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                if (i + 1 == args.length) throw new IllegalArgumentException(args[i] + " needs a value");
+                switch (args[i]) {
+                    case "--energy": energy = Double.parseDouble(args[++i]); break;
+                    case "--sun": sun = parseList(args[++i]); break;
+                    case "--voltage": voltages = parseList(args[++i]); break;
+                    case "--days": days = parseList(args[++i]); break;
+                    case "--dod": dods = parseList(args[++i]); break;
+                    case "--efficiency": efficiencies = parseList(args[++i]); break;
+                    default: throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+            if (Double.isNaN(energy)) energy = JsonStorage.loadIndex().getTotalDailyEnergy();
+            if (!(energy > 0)) throw new IllegalArgumentException("no daily load: save some appliances or pass --energy");
+            DesignSweep sweep = new DesignSweep(sun, voltages, days, dods, efficiencies,
+                    PriceTable.fromCatalog(ComponentCatalog.load(args[1])));
+            long start = System.nanoTime();
+            List<DesignSweep.DesignPoint> front = sweep.paretoFront(energy);
+            UI.printSuccess(String.format("Swept %,d designs for %.1f Wh/day in %.1f ms", sweep.combinations(), energy,
+                    (System.nanoTime() - start) / 1e6));
+            UI.printHeader("COST / AUTONOMY TRADE-OFF");
+            System.out.println("\n+------+-------+--------+------+---------------+------------+------------+");
+            System.out.println("| Days |  DoD  | Sun h  |  V   | Panels        | Battery Ah |       Cost |");
+            System.out.println("+------+-------+--------+------+---------------+------------+------------+");
+            for (DesignSweep.DesignPoint p : front) {
+                SolarDesign d = p.design();
+                System.out.printf("| %4.1f | %5.2f | %6.2f | %4.0f | %3d x %5.0f W | %10.1f | %10.2f |\n", d.daysOfAutonomy(), d.dod(),
+                        d.sunHours(), d.systemVoltage(), d.numberOfPanels(), d.panelWatt(), d.batteryCapacityAh(), p.cost());
+            }
+            System.out.println("+------+-------+--------+------+---------------+------------+------------+");
+        } catch (IOException | RuntimeException e) {
+            UI.printError("Sweep failed: " + e.getMessage());
+        }
+    }
+
+    private static double[] parseList(String values) {
+        return Arrays.stream(values.split(",")).mapToDouble(v -> Double.parseDouble(v.trim())).toArray();
+    }
+
+    private static final String HEADLESS_USAGE = "Usage: solar --batch <input> [output] | --portfolio <input> [summary.json]"
+            + " | --serve [port] [--cache-size <n>] [--cache-dir <dir>] [--no-cache] [--profiles <file>] [--no-metrics]"
+            + " [--catalog <parts.csv>] [--irradiance <dir>]";
+
+    // solar --batch <in> [out] | --portfolio <in> [summary.json] | --serve [port], optionally followed by
+    // --cache-size <n>, --cache-dir <dir>, --no-cache, --profiles <file> (default profiles.json), --no-metrics
+    // --catalog <parts.csv> or --irradiance <dir> (default irradiance)
+
+    private static void runHeadless(String[] args) {
+        List<String> positional = new ArrayList<>();
+        int cacheSize = ResultCache.DEFAULT_MAX_ENTRIES;
+        String cacheDir = null;
+        String profileFile = "profiles.json";
+        String catalogFile = null;
+        String irradianceDir = "irradiance";
+        boolean cacheEnabled = true;
+        int port = 8080;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--cache-size": cacheSize = intOption(args, ++i); break;
+                    case "--cache-dir": cacheDir = option(args, ++i); break;
+                    case "--no-cache": cacheEnabled = false; break;
+                    case "--profiles": profileFile = option(args, ++i); break;
+                    case "--no-metrics": Metrics.get().setEnabled(false); break;
+                    case "--catalog": catalogFile = option(args, ++i); break;
+                    case "--irradiance": irradianceDir = option(args, ++i); break;
+                    default: positional.add(args[i]);
+                }
+            }
+            if (cacheSize <= 0) throw new IllegalArgumentException("--cache-size must be positive");
+            if (args[0].equals("--serve") && !positional.isEmpty()) {
+                String text = positional.get(0);
+                try {
+                    port = Integer.parseInt(text.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("port needs a whole number, not '" + text + "'");
+                }
+                if (port < 0 || port > 65535) throw new IllegalArgumentException("port must be between 0 and 65535");
+            }
+        } catch (IllegalArgumentException e) {
+            UI.printError(e.getMessage());
+            UI.printInfo(HEADLESS_USAGE);
+            return;
+        }
+        ResultCache cache = null;
+        if (cacheEnabled) {
+            try {
+                cache = new ResultCache(cacheSize, cacheDir != null ? java.nio.file.Paths.get(cacheDir) : null);
+            } catch (IOException e) {
+                UI.printWarning("[WARNING] Cache directory unavailable, using memory only: " + e.getMessage());
+                cache = ResultCache.memoryOnly(cacheSize);
+            }
+        }
+        Metrics.registerMBean();
+        ProfileStore profiles;
+        try {
+            profiles = ProfileStore.open(java.nio.file.Paths.get(profileFile));
+        } catch (IOException | RuntimeException e) {
+            UI.printError("Could not load profiles: " + e.getMessage());
+            return;
+        }
+        ComponentCatalog catalog = null;
+        if (catalogFile != null) {
+            try {
+                catalog = ComponentCatalog.load(catalogFile);
+            } catch (IOException | RuntimeException e) {
+                UI.printError("Could not load component catalog: " + e.getMessage());
+                return;
+            }
+        }
+        IrradianceDataset irradiance = new IrradianceDataset(java.nio.file.Paths.get(irradianceDir));
+        if (args[0].equals("--batch")) {
+            if (positional.isEmpty()) {
+                UI.printError("Usage: solar --batch <input> [output]");
+                return;
+            }
+            BatchRunner.run(positional.get(0), positional.size() > 1 ? positional.get(1) : null, cache, profiles, catalog, irradiance);
+        } else if (args[0].equals("--portfolio")) {
+            if (positional.isEmpty()) {
+                UI.printError("Usage: solar --portfolio <input> [summary.json]");
+                return;
+            }
+            BatchRunner.runPortfolio(positional.get(0), positional.size() > 1 ? positional.get(1) : null, cache, profiles, irradiance);
+        } else {
+            profiles.addListener((name, before, after) -> System.err.println("[INFO] Profile '" + name + "' "
+                    + (before == null ? "added" : after == null ? "removed" : "updated")));
+            try {
+                profiles.watch(e -> System.err.println("[WARNING] Keeping previous profiles: " + e.getMessage()));
+            } catch (IOException e) {
+                UI.printWarning("[WARNING] Profile hot reload unavailable: " + e.getMessage());
+            }
+            SizingServer.run(port, cache, profiles, catalog, irradiance);
+        }
+    }
+
+    // The value after the option at args[i - 1].
+    private static String option(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        return args[i];
+    }
+
+    private static int intOption(String[] args, int i) {
+        String value = option(args, i);
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a whole number, not '" + value + "'");
+        }
+    }
+
     private static int getIntInput(Scanner sc, int min, int max) {
         while (true) {
             try {
@@ -177,6 +455,54 @@ public class solar {
         }
     }
 
+    // Only offered when an irradiance directory sits next to the program; Enter falls back to typed sun hours.
+    private static IrradianceDataset.Monthly inputLocation(Scanner sc) {
+        if (!new File("irradiance").isDirectory()) return null;
+        IrradianceDataset dataset = new IrradianceDataset(java.nio.file.Paths.get("irradiance"));
+        while (true) {
+            System.out.print("> Location in irradiance/ (Enter to type sun hours): ");
+            String location = sc.nextLine().trim();
+            if (location.isEmpty()) return null;
+            try {
+                IrradianceDataset.Monthly monthly = dataset.monthly(location);
+                // Polar or night-only data can leave a month with no sun, which nothing can be sized for.
+                if (monthly.worst() > 0) return monthly;
+                UI.printWarning(String.format("[WARNING] %s has %.2f sun hours in %s; pick another location or type sun hours",
+                        monthly.location(), monthly.worst(), IrradianceDataset.MONTHS[monthly.worstMonth()]));
+            } catch (IOException | IllegalArgumentException e) {
+                UI.printWarning("[WARNING] " + e.getMessage());
+            }
+        }
+    }
+
+    private static double[] inputWindows(Scanner sc, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            try {
+                double[] windows = Appliance.parseWindows(sc.nextLine(), ",");
+                if (windows != null) new Appliance("", 0, 1, 0, null, windows, 1);
+                return windows;
+            } catch (IllegalArgumentException e) {
+                UI.printWarning("[WARNING] " + (e instanceof NumberFormatException ? "Invalid number format" : e.getMessage()));
+            }
+        }
+    }
+
+    private static double inputSurge(Scanner sc, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String line = sc.nextLine().trim();
+            if (line.isEmpty()) return 1;
+            try {
+                double value = Double.parseDouble(line);
+                if (value >= 1) return value;
+                UI.printWarning("[WARNING] Surge factor must be at least 1");
+            } catch (NumberFormatException e) {
+                UI.printWarning("[WARNING] Invalid number format");
+            }
+        }
+    }
+
     private static double inputChoice(Scanner sc, String prompt, double[] choices) {
         System.out.print(prompt);
         for (int i = 0; i < choices.length; i++) {
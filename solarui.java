@@ -0,0 +1,803 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.ExecutionException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Swing front end over the shared sizing core: the same Appliance rows, SolarDesign, sensitivity and report
+// renderer as the console and batch paths.
+public class solarui extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final int SENSITIVITY_ROWS = 10;
+
+    // What the report pane shows, kept whole so an export writes exactly the design on screen.
+    record Report(SolarDesign design, Sensitivity.Result tornado, String text) {}
+
+    private ApplianceTableModel model;
+    private JTable table;
+    private JTextArea reportArea;
+    private JTextField txtName, txtWatt, txtHours;
+    private JTextField txtSunHours, txtVoltage, txtPanel, txtDays, txtDod, txtInvEff;
+    // Table edits go through calc, whose running totals drive the summary labels without re-sizing the list.
+    private final SolarCalculator calc = new SolarCalculator(new ApplianceIndex());
+    private final ApplianceIndex appliances = calc.appliances;
+    private final Map<SolarDesign.Output, JLabel> outputLabels = new EnumMap<>(SolarDesign.Output.class);
+    // Detached copy of the rows for the report worker; dropped whenever the table changes.
+    private ApplianceTable rowsSnapshot;
+    private Report report;
+    private SwingWorker<Report, Void> recalcWorker;
+    private SwingWorker<Integer, Appliance> loadWorker;
+    private JProgressBar loadProgress;
+    private JPanel loadPanel;
+    private ProfileStore profiles;
+    private volatile String activeProfile;
+    private final javax.swing.Timer recalcTimer = new javax.swing.Timer(RECALC_DELAY_MS, e -> recalculate(false));
+    private static final int RECALC_DELAY_MS = 300;
+    private static final int LOAD_REFRESH_MS = 250;
+    private final Color PRIMARY_COLOR = new Color(255, 152, 0);  // Orange
+    private final Color SECONDARY_COLOR = new Color(33, 150, 243);  // Blue
+    private final Color BACKGROUND_COLOR = new Color(250, 250, 250);
+    private final Color PANEL_BG = Color.WHITE;
+    private final Color TEXT_COLOR = new Color(33, 33, 33);
+
+    public  solarui() {
+        setTitle("Solar Power System Calculator");
+        setSize(1200, 750);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setLayout(new BorderLayout(0, 0));
+        getContentPane().setBackground(BACKGROUND_COLOR);
+        JPanel mainContainer = new JPanel(new BorderLayout(15, 15));
+        mainContainer.setBackground(BACKGROUND_COLOR);
+        mainContainer.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        add(mainContainer, BorderLayout.CENTER);
+        mainContainer.add(createHeaderPanel(), BorderLayout.NORTH);
+        JSplitPane centerSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
+        centerSplit.setDividerLocation(750);
+        centerSplit.setBackground(BACKGROUND_COLOR);
+        centerSplit.setBorder(null);
+        centerSplit.setLeftComponent(createAppliancesPanel());
+        centerSplit.setRightComponent(createReportPanel());
+        mainContainer.add(centerSplit, BorderLayout.CENTER);
+        mainContainer.add(createParametersPanel(), BorderLayout.SOUTH);
+        recalcTimer.setRepeats(false);
+        model.addTableModelListener(e -> {
+            rowsSnapshot = null;
+            scheduleRecalculation();
+        });
+        calc.addListener((output, before, after) -> {
+            JLabel label = outputLabels.get(output);
+            if (label != null) label.setText(outputText(output, after));
+        });
+        DocumentListener onEdit = new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { scheduleRecalculation(); }
+            public void removeUpdate(DocumentEvent e) { scheduleRecalculation(); }
+            public void changedUpdate(DocumentEvent e) { scheduleRecalculation(); }
+        };
+        for (JTextField field : new JTextField[]{txtSunHours, txtVoltage, txtPanel, txtDays, txtDod, txtInvEff})
+            field.getDocument().addDocumentListener(onEdit);
+        applyParameters(false);
+        openProfiles();
+    }
+
+    // Edits made to profiles.json outside the app are picked up live; only the profile on screen is re-applied.
+    private void openProfiles() {
+        try {
+            profiles = JsonStorage.openProfiles();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read profiles: " + e.getMessage());
+            profiles = new ProfileStore(Paths.get("profiles.json"));
+        }
+        profiles.addListener((name, before, after) -> {
+            if (after != null && name.equals(activeProfile)) SwingUtilities.invokeLater(() -> applyProfile(after));
+        });
+        try {
+            profiles.watch(e -> System.err.println("Keeping previous profiles: " + e.getMessage()));
+        } catch (IOException e) {
+            System.err.println("Profile hot reload unavailable: " + e.getMessage());
+        }
+    }
+
+    private JPanel createHeaderPanel() {
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(PRIMARY_COLOR);
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(20, 25, 20, 25));
+        
+        JLabel titleLabel = new JLabel("Solar Power System Calculator");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 28));
+        titleLabel.setForeground(Color.WHITE);
+        
+        JLabel subtitleLabel = new JLabel("Design your off-grid solar power system");
+        subtitleLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        subtitleLabel.setForeground(new Color(255, 255, 255, 200));
+        
+        JPanel textPanel = new JPanel(new GridLayout(2, 1, 0, 5));
+        textPanel.setBackground(PRIMARY_COLOR);
+        textPanel.add(titleLabel);
+        textPanel.add(subtitleLabel);
+        
+        headerPanel.add(textPanel, BorderLayout.WEST);
+        
+        return headerPanel;
+    }
+
+    private JPanel createAppliancesPanel() {
+        JPanel appliancesPanel = new JPanel(new BorderLayout(10, 10));
+        appliancesPanel.setBackground(PANEL_BG);
+        appliancesPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(new Color(220, 220, 220), 1),
+            BorderFactory.createEmptyBorder(15, 15, 15, 15)
+        ));
+
+        JLabel titleLabel = new JLabel("Appliances & Load");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        titleLabel.setForeground(TEXT_COLOR);
+
+        JTextField txtFilter = createStyledTextField();
+        txtFilter.setColumns(15);
+        txtFilter.setToolTipText("Filter appliances by name");
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        filterPanel.setBackground(PANEL_BG);
+        filterPanel.add(createLabel("Filter:"));
+        filterPanel.add(txtFilter);
+
+        JPanel titlePanel = new JPanel(new BorderLayout());
+        titlePanel.setBackground(PANEL_BG);
+        titlePanel.add(titleLabel, BorderLayout.WEST);
+        titlePanel.add(filterPanel, BorderLayout.EAST);
+        appliancesPanel.add(titlePanel, BorderLayout.NORTH);
+
+        model = new ApplianceTableModel(calc);
+        table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.setRowHeight(28);
+        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 13));
+        table.getTableHeader().setBackground(new Color(240, 240, 240));
+        table.getTableHeader().setForeground(TEXT_COLOR);
+        table.setSelectionBackground(new Color(33, 150, 243, 50));
+        table.setGridColor(new Color(230, 230, 230));
+        
+        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
+        centerRenderer.setHorizontalAlignment(JLabel.CENTER);
+        table.getColumnModel().getColumn(1).setCellRenderer(centerRenderer);
+        table.getColumnModel().getColumn(2).setCellRenderer(centerRenderer);
+        table.getColumnModel().getColumn(3).setCellRenderer(centerRenderer);
+        table.getColumnModel().getColumn(4).setCellRenderer(centerRenderer);
+        
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0) model.sortBy(table.convertColumnIndexToModel(column));
+            }
+        });
+        txtFilter.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { model.setFilter(txtFilter.getText()); }
+            public void removeUpdate(DocumentEvent e) { model.setFilter(txtFilter.getText()); }
+            public void changedUpdate(DocumentEvent e) { model.setFilter(txtFilter.getText()); }
+        });
+
+        JScrollPane tableScroll = new JScrollPane(table);
+        tableScroll.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+        appliancesPanel.add(tableScroll, BorderLayout.CENTER);
+
+        JPanel inputPanel = new JPanel(new GridBagLayout());
+        inputPanel.setBackground(PANEL_BG);
+        inputPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(5, 5, 5, 5);
+
+        txtName = createStyledTextField();
+        txtWatt = createStyledTextField();
+        txtHours = createStyledTextField();
+
+        gbc.gridx = 0; gbc.gridy = 0; gbc.weightx = 0.3;
+        inputPanel.add(createLabel("Appliance Name:"), gbc);
+        gbc.gridx = 1; gbc.weightx = 0.7;
+        inputPanel.add(txtName, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 1; gbc.weightx = 0.3;
+        inputPanel.add(createLabel("Wattage (W):"), gbc);
+        gbc.gridx = 1; gbc.weightx = 0.35;
+        inputPanel.add(txtWatt, gbc);
+        
+        gbc.gridx = 2; gbc.weightx = 0.3;
+        inputPanel.add(createLabel("Hours/Day:"), gbc);
+        gbc.gridx = 3; gbc.weightx = 0.35;
+        inputPanel.add(txtHours, gbc);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        buttonPanel.setBackground(PANEL_BG);
+        
+        JButton btnAdd = createStyledButton("+ Add Appliance", SECONDARY_COLOR);
+        JButton btnRemove = createStyledButton("Remove Selected", new Color(244, 67, 54));
+        JButton btnLoad = createStyledButton("Load from JSON", new Color(76, 175, 80));
+        JButton btnSave = createStyledButton("Save to JSON", new Color(76, 175, 80));
+        JButton btnImport = createStyledButton("Import CSV/TSV", new Color(76, 175, 80));
+        
+        buttonPanel.add(btnAdd);
+        buttonPanel.add(btnRemove);
+        buttonPanel.add(btnLoad);
+        buttonPanel.add(btnSave);
+        buttonPanel.add(btnImport);
+
+        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 4;
+        inputPanel.add(buttonPanel, gbc);
+
+        loadProgress = new JProgressBar(0, 100);
+        loadProgress.setStringPainted(true);
+        JButton btnCancelLoad = createStyledButton("Cancel", new Color(244, 67, 54));
+        btnCancelLoad.addActionListener(e -> { if (loadWorker != null) loadWorker.cancel(true); });
+        loadPanel = new JPanel(new BorderLayout(10, 0));
+        loadPanel.setBackground(PANEL_BG);
+        loadPanel.add(loadProgress, BorderLayout.CENTER);
+        loadPanel.add(btnCancelLoad, BorderLayout.EAST);
+        loadPanel.setVisible(false);
+
+        gbc.gridy = 3;
+        inputPanel.add(loadPanel, gbc);
+
+        appliancesPanel.add(inputPanel, BorderLayout.SOUTH);
+        btnAdd.addActionListener(e -> addAppliance());
+        btnRemove.addActionListener(e -> removeAppliance());
+        btnLoad.addActionListener(e -> loadAppliances());
+        btnSave.addActionListener(e -> saveAppliances());
+        btnImport.addActionListener(e -> importAppliances());
+
+        return appliancesPanel;
+    }
+
+    private JPanel createReportPanel() {
+        JPanel reportPanel = new JPanel(new BorderLayout(10, 10));
+        reportPanel.setBackground(PANEL_BG);
+        reportPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(new Color(220, 220, 220), 1),
+            BorderFactory.createEmptyBorder(15, 15, 15, 15)
+        ));
+
+        JLabel titleLabel = new JLabel("System Report");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        titleLabel.setForeground(TEXT_COLOR);
+
+        JPanel summaryPanel = new JPanel(new GridLayout(2, 2, 10, 5));
+        summaryPanel.setBackground(PANEL_BG);
+        for (SolarDesign.Output output : new SolarDesign.Output[]{SolarDesign.Output.TOTAL_DAILY_ENERGY,
+                SolarDesign.Output.NUMBER_OF_PANELS, SolarDesign.Output.TOTAL_ARRAY_POWER, SolarDesign.Output.BATTERY_CAPACITY_AH}) {
+            JLabel label = createLabel(outputText(output, Double.NaN));
+            outputLabels.put(output, label);
+            summaryPanel.add(label);
+        }
+
+        JPanel northPanel = new JPanel(new BorderLayout(0, 10));
+        northPanel.setBackground(PANEL_BG);
+        northPanel.add(titleLabel, BorderLayout.NORTH);
+        northPanel.add(summaryPanel, BorderLayout.CENTER);
+        reportPanel.add(northPanel, BorderLayout.NORTH);
+
+        reportArea = new JTextArea();
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font("Consolas", Font.PLAIN, 13));
+        reportArea.setBackground(new Color(248, 249, 250));
+        reportArea.setForeground(TEXT_COLOR);
+        reportArea.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        reportArea.setText("\n\n\n\n          Configure parameters and click\n          'Calculate System' to generate report");
+        
+        JScrollPane reportScroll = new JScrollPane(reportArea);
+        reportScroll.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+        reportPanel.add(reportScroll, BorderLayout.CENTER);
+
+        JPanel exportPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        exportPanel.setBackground(PANEL_BG);
+        
+        JButton btnExportTXT = createStyledButton("Export TXT", new Color(96, 125, 139));
+        JButton btnExportCSV = createStyledButton("Export CSV", new Color(96, 125, 139));
+        
+        exportPanel.add(btnExportTXT);
+        exportPanel.add(btnExportCSV);
+        
+        reportPanel.add(exportPanel, BorderLayout.SOUTH);
+
+        btnExportTXT.addActionListener(e -> exportReport("txt"));
+        btnExportCSV.addActionListener(e -> exportReport("csv"));
+
+        return reportPanel;
+    }
+
+    private static String outputText(SolarDesign.Output output, double value) {
+        String shown = Double.isNaN(value) ? "-" : String.format(output == SolarDesign.Output.NUMBER_OF_PANELS ? "%.0f" : "%.1f", value);
+        switch (output) {
+            case TOTAL_DAILY_ENERGY: return "Daily energy: " + shown + " Wh";
+            case NUMBER_OF_PANELS: return "Panels: " + shown;
+            case TOTAL_ARRAY_POWER: return "Array: " + shown + " W";
+            default: return "Battery: " + shown + " Ah";
+        }
+    }
+
+    private JPanel createParametersPanel() {
+        JPanel paramsPanel = new JPanel(new BorderLayout(10, 10));
+        paramsPanel.setBackground(PANEL_BG);
+        paramsPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(new Color(220, 220, 220), 1),
+            BorderFactory.createEmptyBorder(15, 15, 15, 15)
+        ));
+
+        JLabel titleLabel = new JLabel("System Parameters");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        titleLabel.setForeground(TEXT_COLOR);
+        paramsPanel.add(titleLabel, BorderLayout.NORTH);
+
+        JPanel gridPanel = new JPanel(new GridLayout(2, 6, 15, 10));
+        gridPanel.setBackground(PANEL_BG);
+        gridPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+
+        txtSunHours = createStyledTextField();
+        txtVoltage = createStyledTextField();
+        txtPanel = createStyledTextField();
+        txtDays = createStyledTextField();
+        txtDod = createStyledTextField();
+        txtInvEff = createStyledTextField();
+
+        txtSunHours.setText("5.0");
+        txtVoltage.setText("12");
+        txtPanel.setText("100");
+        txtDays.setText("2");
+        txtDod.setText("0.8");
+        txtInvEff.setText("0.9");
+
+        gridPanel.add(createLabel("Sun Hours/Day:"));
+        gridPanel.add(createLabel("System Voltage (V):"));
+        gridPanel.add(createLabel("Panel Wattage (W):"));
+        gridPanel.add(createLabel("Days of Autonomy:"));
+        gridPanel.add(createLabel("Depth of Discharge:"));
+        gridPanel.add(createLabel("Inverter Efficiency:"));
+        
+        gridPanel.add(txtSunHours);
+        gridPanel.add(txtVoltage);
+        gridPanel.add(txtPanel);
+        gridPanel.add(txtDays);
+        gridPanel.add(txtDod);
+        gridPanel.add(txtInvEff);
+
+        paramsPanel.add(gridPanel, BorderLayout.CENTER);
+
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 10));
+        actionPanel.setBackground(PANEL_BG);
+
+        JButton btnCalc = createStyledButton("Calculate System", new Color(255, 152, 0));
+        btnCalc.setFont(new Font("Segoe UI", Font.BOLD, 15));
+        btnCalc.setPreferredSize(new Dimension(200, 40));
+        
+        JButton btnSaveConfig = createStyledButton("Save Profile", new Color(103, 58, 183));
+        JButton btnLoadConfig = createStyledButton("Load Profile", new Color(103, 58, 183));
+
+        actionPanel.add(btnSaveConfig);
+        actionPanel.add(btnLoadConfig);
+        actionPanel.add(btnCalc);
+
+        paramsPanel.add(actionPanel, BorderLayout.SOUTH);
+
+        btnCalc.addActionListener(e -> calculate());
+        btnSaveConfig.addActionListener(e -> saveConfig());
+        btnLoadConfig.addActionListener(e -> loadConfig());
+
+        return paramsPanel;
+    }
+
+    private JTextField createStyledTextField() {
+        JTextField textField = new JTextField();
+        textField.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        textField.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(new Color(200, 200, 200)),
+            BorderFactory.createEmptyBorder(5, 8, 5, 8)
+        ));
+        return textField;
+    }
+
+    private JLabel createLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        label.setForeground(TEXT_COLOR);
+        return label;
+    }
+
+    private JButton createStyledButton(String text, Color bgColor) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        button.setBackground(bgColor);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setBorder(BorderFactory.createEmptyBorder(8, 15, 8, 15));
+        
+        button.addMouseListener(new MouseAdapter() {
+            public void mouseEntered(MouseEvent e) {
+                button.setBackground(bgColor.darker());
+            }
+            public void mouseExited(MouseEvent e) {
+                button.setBackground(bgColor);
+            }
+        });
+        
+        return button;
+    }
+
+    private void addAppliance() {
+        try {
+            String name = txtName.getText().trim();
+            if (name.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Please enter appliance name.", "Input Error", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            double watt = Double.parseDouble(txtWatt.getText());
+            double hrs = Double.parseDouble(txtHours.getText());
+            
+            if (watt <= 0 || hrs <= 0) {
+                JOptionPane.showMessageDialog(this, "Wattage and hours must be positive values.", "Input Error", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            model.add(new Appliance(name, watt, 1, hrs));
+            
+            txtName.setText("");
+            txtWatt.setText("");
+            txtHours.setText("");
+            txtName.requestFocus();
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Please enter valid numbers for wattage and hours.", "Input Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void removeAppliance() {
+        int selectedRow = table.getSelectedRow();
+        if (selectedRow >= 0) {
+            model.remove(selectedRow);
+        } else {
+            JOptionPane.showMessageDialog(this, "Please select an appliance to remove.", "No Selection", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // Parses on a worker and appends rows in batches as they arrive; progress tracks bytes read.
+    private void loadAppliances() {
+        if (loadWorker != null && !loadWorker.isDone()) return;
+        File file = new File("appliances.json");
+        long fileSize = Math.max(file.length(), 1);
+        model.clear();
+        loadProgress.setValue(0);
+        loadPanel.setVisible(true);
+
+        loadWorker = new SwingWorker<Integer, Appliance>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                if (!file.exists()) return 0;
+                long[] bytesRead = {0};
+                InputStream counting = new FilterInputStream(new FileInputStream(file)) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) bytesRead[0]++;
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buf, int off, int len) throws IOException {
+                        int n = super.read(buf, off, len);
+                        if (n > 0) bytesRead[0] += n;
+                        return n;
+                    }
+                };
+                int[] count = {0};
+                long start = Metrics.start();
+                try (Reader reader = new InputStreamReader(counting, StandardCharsets.UTF_8)) {
+                    JsonStorage.streamAppliances(reader, a -> {
+                        publish(a);
+                        if (++count[0] % 1024 == 0) setProgress((int) Math.min(99, bytesRead[0] * 100 / fileSize));
+                    }, this::isCancelled);
+                } catch (IOException | RuntimeException e) {
+                    Metrics.failed(Metrics.Op.LOAD, start);
+                    throw e;
+                }
+                Metrics.record(Metrics.Op.LOAD, start, count[0], bytesRead[0]);
+                return count[0];
+            }
+
+            private long lastRefresh = System.nanoTime();
+
+            // A sorted or filtered table is re-sorted at most every LOAD_REFRESH_MS while loading, and once at the end.
+            @Override
+            protected void process(List<Appliance> chunk) {
+                if (isCancelled()) return;
+                long now = System.nanoTime();
+                boolean refresh = now - lastRefresh >= LOAD_REFRESH_MS * 1_000_000L;
+                model.addAll(chunk, refresh);
+                // A deferred refresh fires no table event, so the report's copy of the rows is dropped here.
+                rowsSnapshot = null;
+                if (refresh) lastRefresh = now;
+                loadProgress.setValue(getProgress());
+            }
+
+            @Override
+            protected void done() {
+                model.flush();
+                loadPanel.setVisible(false);
+                if (isCancelled()) {
+                    JOptionPane.showMessageDialog(solarui.this, "Loading cancelled after " + appliances.size() + " appliances.", "Cancelled", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(solarui.this, "Loaded " + appliances.size() + " appliances successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(solarui.this, "Error loading: " + rootMessage(e), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        loadWorker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) loadProgress.setValue((Integer) e.getNewValue());
+        });
+        loadWorker.execute();
+    }
+
+    private void saveAppliances() {
+        ApplianceIndex snapshot = new ApplianceIndex(appliances);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                JsonStorage.writeAppliances(snapshot, true);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(solarui.this, "Appliances saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(solarui.this, "Error saving: " + rootMessage(e), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    // Parses into a scratch index on a worker, then merges it into the table in one step on the EDT.
+    private void importAppliances() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV/TSV files", "csv", "tsv", "tab", "txt"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        ApplianceIndex imported = new ApplianceIndex();
+        new SwingWorker<ApplianceImporter.Result, Void>() {
+            @Override
+            protected ApplianceImporter.Result doInBackground() throws IOException {
+                return ApplianceImporter.importFile(file.toPath(), imported);
+            }
+
+            @Override
+            protected void done() {
+                ApplianceImporter.Result result;
+                try {
+                    result = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(solarui.this, "Error importing: " + rootMessage(e), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                model.addAll(imported.toList());
+                StringBuilder message = new StringBuilder(String.format("Imported %,d of %,d rows from %s.",
+                        result.imported(), result.rows(), file.getName()));
+                if (result.failed() > 0) {
+                    message.append(String.format("%n%nSkipped %,d rows:", result.failed()));
+                    int shown = Math.min(10, result.errors().size());
+                    for (int i = 0; i < shown; i++) message.append('\n').append(result.errors().get(i));
+                    if (result.failed() > shown) message.append(String.format("%n... and %,d more", result.failed() - shown));
+                }
+                JOptionPane.showMessageDialog(solarui.this, message.toString(), "Import",
+                        result.failed() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+            }
+        }.execute();
+    }
+
+    private void calculate() {
+        recalculate(true);
+    }
+
+    private void scheduleRecalculation() {
+        recalcTimer.restart();
+    }
+
+    // Parameters are read on the EDT and handed to calc, which re-sizes from its running totals. The design comes
+    // from calc.getDesign(), so the peak sweep only runs when the rows changed; the sensitivity pass and the text
+    // are built on a worker from a detached copy of the rows. A newer request cancels the running one, and only
+    // the latest worker may publish.
+    private void recalculate(boolean interactive) {
+        recalcTimer.stop();
+        if (applyParameters(interactive) == null) return;
+        if (appliances.isEmpty()) {
+            if (interactive) JOptionPane.showMessageDialog(this, "Please add at least one appliance before calculating.", "No Appliances", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        if (recalcWorker != null) recalcWorker.cancel(true);
+        long start = Metrics.start();
+        SolarDesign design;
+        try {
+            design = calc.getDesign();
+        } catch (RuntimeException e) {
+            Metrics.failed(Metrics.Op.COMPUTE, start);
+            throw e;
+        }
+        Metrics.record(Metrics.Op.COMPUTE, start, appliances.size(), 0);
+        if (rowsSnapshot == null) rowsSnapshot = appliances.table().copy();
+        ApplianceTable rows = rowsSnapshot;
+        recalcWorker = new SwingWorker<Report, Void>() {
+            @Override
+            protected Report doInBackground() {
+                return buildReport(rows, design);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || recalcWorker != this) return;
+                try {
+                    report = get();
+                    reportArea.setText(report.text());
+                } catch (InterruptedException | ExecutionException e) {
+                    reportArea.setText("Calculation failed: " + rootMessage(e));
+                }
+            }
+        };
+        recalcWorker.execute();
+    }
+
+    // Returns null, leaving calc on its previous parameters, while a field holds an incomplete or invalid value.
+    private SystemParameters applyParameters(boolean interactive) {
+        double sunHours, voltage, panel, days, dod, invEff;
+        try {
+            sunHours = Double.parseDouble(txtSunHours.getText());
+            voltage = Double.parseDouble(txtVoltage.getText());
+            panel = Double.parseDouble(txtPanel.getText());
+            days = Double.parseDouble(txtDays.getText());
+            dod = Double.parseDouble(txtDod.getText());
+            invEff = Double.parseDouble(txtInvEff.getText());
+        } catch (NumberFormatException e) {
+            if (interactive) JOptionPane.showMessageDialog(this, "Please fill all parameters with valid numbers.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+
+        SystemParameters parameters;
+        try {
+            parameters = new SystemParameters(sunHours, voltage, panel, days, dod, invEff);
+        } catch (IllegalArgumentException e) {
+            if (interactive) JOptionPane.showMessageDialog(this, "Please check parameter values:\n- All values must be positive\n- DoD and Efficiency must be between 0 and 1", "Invalid Parameters", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        calc.setParameters(parameters);
+        return parameters;
+    }
+
+    private static String rootMessage(Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage();
+    }
+
+    private void saveConfig() {
+        SiteProfile profile;
+        try {
+            String name = JOptionPane.showInputDialog(this, "Profile name:", activeProfile != null ? activeProfile : "default");
+            if (name == null || name.isBlank()) return;
+            profile = new SiteProfile(name.trim(), new SystemParameters(Double.parseDouble(txtSunHours.getText()),
+                    Double.parseDouble(txtVoltage.getText()), Double.parseDouble(txtPanel.getText()),
+                    Double.parseDouble(txtDays.getText()), Double.parseDouble(txtDod.getText()),
+                    Double.parseDouble(txtInvEff.getText())));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Invalid data in configuration fields.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        try {
+            profiles.put(profile);
+            activeProfile = profile.name();
+            JOptionPane.showMessageDialog(this, "Profile '" + profile.name() + "' saved to profiles.json", "Success", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error saving profile: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void loadConfig() {
+        Object[] names = profiles.names().toArray();
+        if (names.length == 0) { JOptionPane.showMessageDialog(this, "No saved profiles found!", "File Not Found", JOptionPane.WARNING_MESSAGE); return; }
+        Object initial = activeProfile != null && profiles.get(activeProfile) != null ? activeProfile : names[0];
+        Object choice = JOptionPane.showInputDialog(this, "Select a profile:", "Load Profile", JOptionPane.QUESTION_MESSAGE, null, names, initial);
+        if (choice == null) return;
+        SiteProfile profile = profiles.get((String) choice);
+        if (profile == null) return;
+        activeProfile = profile.name();
+        applyProfile(profile);
+    }
+
+    private void applyProfile(SiteProfile p) {
+        txtSunHours.setText(String.valueOf(p.sunHours()));
+        txtVoltage.setText(String.valueOf(p.systemVoltage()));
+        txtPanel.setText(String.valueOf(p.panelWatt()));
+        txtDays.setText(String.valueOf(p.daysOfAutonomy()));
+        txtDod.setText(String.valueOf(p.dod()));
+        txtInvEff.setText(String.valueOf(p.inverterEfficiency()));
+    }
+
+    private void exportReport(String format) {
+        if (report == null) {
+            JOptionPane.showMessageDialog(this, "Please calculate the system first before exporting!", "No Report", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        Report exported = report;
+        int count = appliances.size();
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws IOException {
+                return writeReport(exported, format.equalsIgnoreCase("csv"), Path.of(""), count).toString();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    JOptionPane.showMessageDialog(solarui.this, "Report exported to " + get());
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(solarui.this, "Export failed: " + rootMessage(e));
+                }
+            }
+        }.execute();
+    }
+
+    // What the report worker runs, static so SolarBenchmark can time the same code. The sensitivity pass is timed
+    // with the text as RENDER: it only exists for the report.
+    static Report buildReport(ApplianceTable rows, SolarDesign design) {
+        long start = Metrics.start();
+        try {
+            Sensitivity.Result tornado = Sensitivity.analyze(rows, design, Sensitivity.DEFAULT_FRACTION);
+            String text = new ReportRenderer(design).withSensitivity(tornado, SENSITIVITY_ROWS)
+                    .render(ReportRenderer.Format.TEXT);
+            Metrics.record(Metrics.Op.RENDER, start, rows.size(), 0);
+            return new Report(design, tornado, text);
+        } catch (RuntimeException e) {
+            Metrics.failed(Metrics.Op.RENDER, start);
+            throw e;
+        }
+    }
+
+    // What the export worker runs: the on-screen text as is, or the same design and tornado rendered as CSV.
+    static Path writeReport(Report report, boolean csv, Path dir, int count) throws IOException {
+        long start = Metrics.start();
+        try {
+            Path file = dir.resolve(csv ? "solar_report.csv" : "solar_report.txt");
+            String text = csv
+                    ? new ReportRenderer(report.design()).withSensitivity(report.tornado(), SENSITIVITY_ROWS)
+                            .render(ReportRenderer.Format.CSV)
+                    : report.text();
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            Files.write(file, bytes);
+            Metrics.record(Metrics.Op.EXPORT, start, count, bytes.length);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Metrics.failed(Metrics.Op.EXPORT, start);
+            throw e;
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        SwingUtilities.invokeLater(() -> new solarui().setVisible(true));
+    }
+}
\ No newline at end of file